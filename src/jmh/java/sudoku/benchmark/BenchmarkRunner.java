@@ -0,0 +1,30 @@
+package sudoku.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler attached, so allocation per operation is reported alongside throughput
+ * and average time. Accepts the usual JMH command line options, such as a benchmark regex or -p to override a
+ * parameter.
+ */
+public class BenchmarkRunner {
+	private BenchmarkRunner () {
+	}
+
+	/**
+	 * @param args JMH command line options
+	 * @throws CommandLineOptionException if the options cannot be parsed
+	 * @throws RunnerException            if a benchmark fails
+	 */
+	public static void main (String[] args) throws CommandLineOptionException, RunnerException {
+		new Runner(new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
@@ -0,0 +1,94 @@
+package sudoku.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sudoku.backtracking.Configuration;
+import sudoku.puzzle.SudokuBoard;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the SudokuBoard operations the Backtracker calls at every node, and of loading a puzzle from its
+ * csv file. Must be run from the project root so the input directory can be found.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+	/** Name of the puzzle in the input directory */
+	@Param({"easy", "medium", "hard"})
+	public String puzzle;
+
+	/** The puzzle as loaded from its csv file, which has to check every unit when validated */
+	private SudokuBoard sudokuBoard;
+	/** The first successor of the puzzle, which only has to check its last placed number when validated */
+	private Configuration successor;
+
+	/** Load the puzzle and generate its first successor. */
+	@Setup
+	public void setup () {
+		sudokuBoard = new SudokuBoard(Puzzles.inputFile(puzzle));
+		successor = sudokuBoard.successorIterator().next();
+	}
+
+	/**
+	 * @return is the loaded puzzle valid?
+	 */
+	@Benchmark
+	public boolean isValid () {
+		return sudokuBoard.isValid();
+	}
+
+	/**
+	 * @return is the first successor valid?
+	 */
+	@Benchmark
+	public boolean isValidSuccessor () {
+		return successor.isValid();
+	}
+
+	/**
+	 * @return is the loaded puzzle solved?
+	 */
+	@Benchmark
+	public boolean isGoal () {
+		return sudokuBoard.isGoal();
+	}
+
+	/**
+	 * @return every successor of the loaded puzzle
+	 */
+	@Benchmark
+	public Collection<Configuration> getSuccessors () {
+		return sudokuBoard.getSuccessors();
+	}
+
+	/**
+	 * @return a copy of the loaded puzzle
+	 */
+	@Benchmark
+	public SudokuBoard copyConstructor () {
+		return new SudokuBoard(sudokuBoard);
+	}
+
+	/**
+	 * @return the puzzle read and parsed from its csv file
+	 */
+	@Benchmark
+	public SudokuBoard parseCsv () {
+		return new SudokuBoard(Puzzles.inputFile(puzzle));
+	}
+}
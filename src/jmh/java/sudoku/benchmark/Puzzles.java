@@ -0,0 +1,87 @@
+package sudoku.benchmark;
+
+import sudoku.puzzle.SudokuBoard;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/** Loads the puzzles used by the benchmarks, either from the input directory or from the bundled hard puzzles. */
+final class Puzzles {
+	/** Bundled known-hard puzzles, one per line as name,81 digits */
+	private static final String HARD_PUZZLES = "hard_puzzles.txt";
+
+	private Puzzles () {
+	}
+
+	/**
+	 * Get the path of a puzzle in the input directory, relative to the project root.
+	 *
+	 * @param name name of the puzzle, such as easy or hard
+	 * @return path of the puzzle's csv file
+	 */
+	static String inputFile (String name) {
+		return "input/" + name + "_puzzle.csv";
+	}
+
+	/**
+	 * Load a puzzle by name. The names of the csv files in the input directory are tried first, then the names of
+	 * the bundled hard puzzles.
+	 *
+	 * @param name name of the puzzle
+	 * @return the puzzle
+	 */
+	static SudokuBoard load (String name) {
+		switch (name) {
+			case "easy", "medium", "hard", "sample" -> {
+				return new SudokuBoard(inputFile(name));
+			}
+			default -> {
+				return loadBundled(name);
+			}
+		}
+	}
+
+	/**
+	 * Load one of the bundled hard puzzles.
+	 *
+	 * @param name name of the puzzle
+	 * @return the puzzle
+	 */
+	private static SudokuBoard loadBundled (String name) {
+		InputStream in = Puzzles.class.getResourceAsStream(HARD_PUZZLES);
+		if (in == null) {
+			throw new IllegalStateException("Missing resource " + HARD_PUZZLES);
+		}
+		try (BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII))) {
+			String line;
+			while (( line = br.readLine() ) != null) {
+				if (line.startsWith(name + ",")) {
+					return parse(line.substring(name.length() + 1));
+				}
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		throw new IllegalArgumentException("Unknown puzzle " + name);
+	}
+
+	/**
+	 * Parse a 9x9 puzzle written as 81 digits read row by row, where 0 is a blank cell.
+	 *
+	 * @param digits the puzzle's digits
+	 * @return the puzzle
+	 */
+	private static SudokuBoard parse (String digits) {
+		int size = SudokuBoard.DEFAULT_SIZE;
+		int[][] cellValues = new int[size][size];
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				cellValues[row][col] = digits.charAt(row * size + col) - '0';
+			}
+		}
+		return new SudokuBoard(cellValues, null);
+	}
+}
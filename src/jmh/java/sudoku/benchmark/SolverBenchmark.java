@@ -0,0 +1,84 @@
+package sudoku.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sudoku.backtracking.Backtracker;
+import sudoku.backtracking.Configuration;
+import sudoku.puzzle.CompactSudokuBoard;
+import sudoku.puzzle.SearchHeuristic;
+import sudoku.puzzle.SudokuBoard;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of a full Backtracker solve, on the puzzles in the input directory and the bundled hard puzzles.
+ * Only MINIMUM_REMAINING_VALUES is run by default, since FIRST_EMPTY_CELL takes seconds per solve on the hardest
+ * puzzles; pass -p heuristic=FIRST_EMPTY_CELL to include it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+	/** Name of the puzzle to solve */
+	@Param({"easy", "medium", "hard", "sample", "inkala", "escargot", "seventeen-clue", "easter-monster", "brute-force"})
+	public String puzzle;
+
+	/** How successors are generated */
+	@Param({"MINIMUM_REMAINING_VALUES"})
+	public SearchHeuristic heuristic;
+
+	/** The puzzle, left unchanged by every solve */
+	private SudokuBoard sudokuBoard;
+	/** The puzzle as a CompactSudokuBoard */
+	private CompactSudokuBoard compactBoard;
+	/** The solver, without debugging or statistics */
+	private Backtracker backtracker;
+
+	/** Load the puzzle. */
+	@Setup
+	public void setup () {
+		sudokuBoard = Puzzles.load(puzzle);
+		sudokuBoard.setSearchHeuristic(heuristic);
+		compactBoard = new CompactSudokuBoard(sudokuBoard);
+		backtracker = new Backtracker(false);
+	}
+
+	/**
+	 * @return the solution, searching SudokuBoard successors
+	 */
+	@Benchmark
+	public Optional<Configuration> solveSudokuBoard () {
+		return backtracker.solve(sudokuBoard);
+	}
+
+	/**
+	 * @return the solution, searching CompactSudokuBoard successors
+	 */
+	@Benchmark
+	public Optional<Configuration> solveCompactBoard () {
+		return backtracker.solve(compactBoard);
+	}
+
+	/**
+	 * @return the solved board, making and undoing moves on a single CompactSudokuBoard
+	 */
+	@Benchmark
+	public CompactSudokuBoard solveCompactBoardInPlace () {
+		CompactSudokuBoard board = new CompactSudokuBoard(compactBoard);
+		backtracker.solveInPlace(board);
+		return board;
+	}
+}
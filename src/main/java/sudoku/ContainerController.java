@@ -1,5 +1,6 @@
 package sudoku;
 
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -13,21 +14,44 @@ import javafx.scene.paint.Color;
 import javafx.stage.FileChooser;
 import sudoku.backtracking.Backtracker;
 import sudoku.backtracking.Configuration;
+import sudoku.backtracking.IterativeBacktracker;
+import sudoku.backtracking.ParallelBacktracker;
+import sudoku.backtracking.SolutionCount;
+import sudoku.dancinglinks.DancingLinks;
+import sudoku.gui.BoardEdit;
 import sudoku.gui.GUIBoard;
+import sudoku.logic.ConstraintPropagator;
+import sudoku.logic.DifficultyRater;
+import sudoku.logic.DifficultyRating;
+import sudoku.logic.Hint;
+import sudoku.logic.HintEngine;
+import sudoku.logic.PropagationResult;
+import sudoku.puzzle.CompactSudokuBoard;
+import sudoku.puzzle.SearchHeuristic;
 import sudoku.puzzle.SudokuBoard;
 
 import java.io.File;
 import java.net.URL;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.Stack;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 /** Class that Controllers the contents of container.fxml and injects and controls contents of the GUIBoard. */
 public class ContainerController implements Initializable {
-	/** Stack of GUIBoards used to restore the Board to a previous state */
-	private final Stack<GUIBoard> undoStack;
-	/** Stack of GUIBoards used to restore the Board to a previous state */
-	private final Stack<GUIBoard> redoStack;
+	/** How long a solver may run before it gives up, unless the sudoku.solveDeadlineMillis property says otherwise */
+	private static final long DEFAULT_SOLVE_DEADLINE_MILLIS = 10_000;
+	/** How many positions the backtracking solver searches between progress updates */
+	private static final long NODES_PER_SLICE = 10_000;
+
+	/** Stack of the user's actions, undone to restore the Board to a previous state */
+	private final Stack<BoardEdit> undoStack;
+	/** Stack of the user's undone actions, redone to restore the Board to a later state */
+	private final Stack<BoardEdit> redoStack;
 
 	/** StackPane where messages are printed out to the user */
 	@FXML
@@ -59,16 +83,29 @@ public class ContainerController implements Initializable {
 	/** Has the erase button been toggled? */
 	private boolean erase;
 
+	/** Button that cancels the solver running in the background */
+	@FXML
+	private Button cancelBtn;
+	/** The solver running in the background, or null if none is running */
+	private Task<?> solveTask;
+	/** How long a solver may run before it gives up */
+	private Duration solveDeadline;
+
+	/** Grades how hard each loaded puzzle is */
+	private final DifficultyRater difficultyRater;
+
 	/** A graphical representation of a SudokuBoard */
 	private GUIBoard guiBoard;
 
 	/** Default constructor. */
 	public ContainerController () {
 		this.guiBoard = new GUIBoard(this);
+		this.difficultyRater = new DifficultyRater();
 		this.undoStack = new Stack<>();
 		this.redoStack = new Stack<>();
 		this.annotate = false;
 		this.erase = false;
+		this.solveDeadline = Duration.ofMillis(Long.getLong("sudoku.solveDeadlineMillis", DEFAULT_SOLVE_DEADLINE_MILLIS));
 	}
 
 	/**
@@ -111,27 +148,17 @@ public class ContainerController implements Initializable {
 	}
 
 	/**
-	 * Push this instance's GUIBoard on to the undo stack and clear the redo stack
-	 * because the current board is not the first board in the redo stack.
+	 * Push the user's last action on to the undo stack and clear the redo stack
+	 * because the current board is not the board the redo stack was undone from.
+	 *
+	 * @param edit the cells changed by the action
 	 */
-	public void pushNewBoardToUndoStack () {
-		undoStack.push(new GUIBoard(guiBoard));
+	public void pushEditToUndoStack (BoardEdit edit) {
+		undoStack.push(edit);
 		undoBtn.setDisable(false);
 		clearRedoStack();
 	}
 
-	/** Push this instance's GUIBoard on to the undo stack without clearing the current redo stack. */
-	private void pushBoardToUndoStack () {
-		undoStack.push(new GUIBoard(guiBoard));
-		undoBtn.setDisable(false);
-	}
-
-	/** Push this instance's GUIBoard on to the redo stack. */
-	private void pushOnToRedoStack () {
-		redoStack.push(new GUIBoard(guiBoard));
-		redoBtn.setDisable(false);
-	}
-
 	/** Clear the redo stack and disable the redo button. */
 	private void clearRedoStack () {
 		redoStack.clear();
@@ -145,9 +172,10 @@ public class ContainerController implements Initializable {
 	 */
 	public void undoLastAction (ActionEvent event) {
 		if (!undoStack.empty()) {
-			pushOnToRedoStack();
-			guiBoard = undoStack.pop();
-			updateBoardDisplay();
+			BoardEdit edit = undoStack.pop();
+			guiBoard.undoEdit(edit);
+			redoStack.push(edit);
+			redoBtn.setDisable(false);
 			eraseOff();
 			if (undoStack.empty()) {
 				undoBtn.setDisable(true);
@@ -162,9 +190,10 @@ public class ContainerController implements Initializable {
 	 */
 	public void redoLastAction (ActionEvent event) {
 		if (!redoStack.empty()) {
-			pushBoardToUndoStack();
-			guiBoard = redoStack.pop();
-			updateBoardDisplay();
+			BoardEdit edit = redoStack.pop();
+			guiBoard.redoEdit(edit);
+			undoStack.push(edit);
+			undoBtn.setDisable(false);
 			eraseOff();
 			if (redoStack.empty()) {
 				redoBtn.setDisable(true);
@@ -215,8 +244,9 @@ public class ContainerController implements Initializable {
 		}
 	}
 
-	/** Clear this instance's stacks and reset annotate and erase buttons to off. */
+	/** Clear this instance's stacks, reset annotate and erase buttons to off, and cancel any running solver. */
 	private void resetButtons () {
+		cancelSolve(new ActionEvent());
 		undoStack.clear();
 		undoBtn.setDisable(true);
 		redoStack.clear();
@@ -238,21 +268,21 @@ public class ContainerController implements Initializable {
 	public void loadEasyPuzzle (ActionEvent event) {
 		guiBoard.loadEasyPuzzle();
 		resetButtons();
-		successMessage("Successfully loaded EASY puzzle");
+		successMessage("Successfully loaded EASY puzzle\n" + describeDifficulty());
 	}
 
 	/** Load the medium sudoku puzzle to the GUI Board and display it. */
 	public void loadMediumPuzzle (ActionEvent event) {
 		guiBoard.loadMediumPuzzle();
 		resetButtons();
-		successMessage("Successfully loaded MEDIUM puzzle");
+		successMessage("Successfully loaded MEDIUM puzzle\n" + describeDifficulty());
 	}
 
 	/** Load the hard sudoku puzzle to the GUI Board and display it. */
 	public void loadHardPuzzle (ActionEvent event) {
 		guiBoard.loadHardPuzzle();
 		resetButtons();
-		successMessage("Successfully loaded HARD puzzle");
+		successMessage("Successfully loaded HARD puzzle\n" + describeDifficulty());
 	}
 
 	/** Open the file explorer to allow the user to import a CSV Sudoku file. */
@@ -261,21 +291,309 @@ public class ContainerController implements Initializable {
 		if (newFile != null) {
 			guiBoard.loadNewPuzzle(newFile.getAbsolutePath());
 			resetButtons();
-			successMessage("Successfully loaded EXTERNAL puzzle");
+			successMessage("Successfully loaded EXTERNAL puzzle\n" + describeDifficulty());
 		} else {
 			errorMessage("No file chosen");
 		}
 	}
 
-	/** Find the solution to the loaded Sudoku puzzle and display it. */
+	/**
+	 * Rate the loaded puzzle and describe the hardest technique needed to solve it.
+	 *
+	 * @return the hardest technique and the score of the loaded puzzle
+	 */
+	private String describeDifficulty () {
+		DifficultyRating rating = difficultyRater.rate(guiBoard.getOriginalPuzzle());
+		String hardest = rating.isGuessingNeeded() ? "GUESSING"
+				: rating.getHardestTechnique().map(technique -> technique.name().replace('_', ' ')).orElse("NONE");
+		return "Hardest: " + hardest + " (score " + rating.getScore() + ")";
+	}
+
+	/**
+	 * Tell the user the next number that can be placed on the current board without guessing, and the technique
+	 * that finds it, instead of solving the whole puzzle.
+	 *
+	 * @param event ActionEvent from button press
+	 */
+	public void showHint (ActionEvent event) {
+		if (isSolving()) {
+			return;
+		}
+		HintEngine hintEngine = guiBoard.getHintEngine();
+		Optional<Hint> hint = hintEngine.nextHint();
+		if (hint.isPresent()) {
+			Hint next = hint.get();
+			successMessage("Try " + next.getNumber() + " at row " + ( next.getRow() + 1 ) + ", column "
+					+ ( next.getCol() + 1 ) + "\n(" + next.getTechnique().name().replace('_', ' ') + ")");
+		} else if (hintEngine.hasContradiction()) {
+			errorMessage("A number on the board\nis wrong.");
+		} else if (guiBoard.getSudokuBoard().isGoal()) {
+			successMessage("The puzzle is already solved!");
+		} else {
+			errorMessage("No number can be placed\nwithout guessing.");
+		}
+	}
+
+	/**
+	 * Fill in every number of the given Sudoku puzzle that can be found without guessing, and prepare the result
+	 * for the backtracking solvers.
+	 *
+	 * @param puzzle Sudoku puzzle to propagate
+	 * @return board to continue solving from, or empty if propagation proved there is no solution
+	 */
+	private static Optional<CompactSudokuBoard> propagateBoard (SudokuBoard puzzle) {
+		PropagationResult propagation = new ConstraintPropagator().propagate(puzzle);
+		if (propagation.isContradiction()) {
+			return Optional.empty();
+		}
+		CompactSudokuBoard board = new CompactSudokuBoard(propagation.getSudokuBoard());
+		board.setSearchHeuristic(SearchHeuristic.MINIMUM_REMAINING_VALUES);
+		return Optional.of(board);
+	}
+
+	/**
+	 * Set how long a solver may run before it gives up.
+	 *
+	 * @param solveDeadline time allowed for each solve
+	 */
+	public void setSolveDeadline (Duration solveDeadline) {
+		this.solveDeadline = solveDeadline;
+	}
+
+	/**
+	 * Run the given solving task on a background thread, so the GUI stays responsive, and display its solution.
+	 * The task's messages are displayed as progress, along with a button to cancel it, and the GUI Board is only
+	 * updated once the task finishes.
+	 *
+	 * @param task task solving a copy of the loaded Sudoku puzzle
+	 */
+	private void solveInBackground (Task<Optional<SudokuBoard>> task) {
+		runInBackground(task, this::showSolution, "No solution was found");
+	}
+
+	/**
+	 * Run the given solver task on a background thread, so the GUI stays responsive.
+	 * The task's messages are displayed as progress, along with a button to cancel it, and the task's result is
+	 * only shown once it finishes.
+	 *
+	 * @param task          task searching a copy of the loaded Sudoku puzzle
+	 * @param onSucceeded   shows the result of the task, if it finishes
+	 * @param timeoutAction what the user is told could not be done, if the task runs past the deadline
+	 * @param <T>           the result of the task
+	 */
+	private <T> void runInBackground (Task<T> task, Consumer<T> onSucceeded, String timeoutAction) {
+		solveTask = task;
+		boardAnchor.setDisable(true);
+		cancelBtn.setVisible(true);
+		messageLabel.setTextFill(Color.valueOf("#005377"));
+		messageLabel.textProperty().bind(task.messageProperty());
+		messagePane.setVisible(true);
+
+		task.setOnSucceeded(event -> {
+			finishSolve();
+			onSucceeded.accept(task.getValue());
+		});
+		task.setOnCancelled(event -> {
+			finishSolve();
+			errorMessage("Solving was cancelled.");
+		});
+		task.setOnFailed(event -> {
+			finishSolve();
+			if (task.getException() instanceof TimeoutException) {
+				errorMessage(timeoutAction + "\nwithin " + solveDeadline.toSeconds() + " seconds.");
+			} else {
+				errorMessage("The solver failed.");
+			}
+		});
+
+		Thread thread = new Thread(task, "sudoku-solver");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/** Restore the GUI after a solving task finishes, whatever the outcome. */
+	private void finishSolve () {
+		solveTask = null;
+		messageLabel.textProperty().unbind();
+		cancelBtn.setVisible(false);
+		boardAnchor.setDisable(false);
+	}
+
+	/**
+	 * Cancel the solving task that is running, if any.
+	 *
+	 * @param event ActionEvent from button press
+	 */
+	public void cancelSolve (ActionEvent event) {
+		if (solveTask != null) {
+			solveTask.cancel();
+		}
+	}
+
+	/**
+	 * Is a solving task already running? Only one solver runs at a time.
+	 *
+	 * @return true if a solving task is running
+	 */
+	private boolean isSolving () {
+		return solveTask != null;
+	}
+
+	/** Find the solution to the loaded Sudoku puzzle with the backtracking solver and display it. */
 	public void displaySolution (ActionEvent event) {
+		if (isSolving()) {
+			return;
+		}
 		resetBoard(new ActionEvent());
-		Backtracker backtracker = new Backtracker(false);
-		Optional<Configuration> solution = backtracker.solve(guiBoard.getSudokuBoard());
+		SudokuBoard puzzle = new SudokuBoard(guiBoard.getSudokuBoard());
+		Duration deadline = solveDeadline;
+		solveInBackground(new Task<>() {
+			@Override
+			protected Optional<SudokuBoard> call () throws TimeoutException {
+				long stopTime = System.nanoTime() + deadline.toNanos();
+				updateMessage("Solving...");
+				Optional<CompactSudokuBoard> board = propagateBoard(puzzle);
+				if (board.isEmpty()) {
+					return Optional.empty();
+				}
+				// step the search in slices so it can report progress and be stopped between them
+				IterativeBacktracker backtracker = new IterativeBacktracker(board.get());
+				while (backtracker.step(NODES_PER_SLICE) == IterativeBacktracker.Status.RUNNING) {
+					if (isCancelled()) {
+						return Optional.empty();
+					}
+					if (System.nanoTime() > stopTime) {
+						throw new TimeoutException();
+					}
+					updateMessage("Solving...\n" + backtracker.getNodesVisited() + " positions searched");
+				}
+				return backtracker.getSolution().map(config -> ( (CompactSudokuBoard) config ).toSudokuBoard());
+			}
+		});
+	}
+
+	/** Find the solution to the loaded Sudoku puzzle with the parallel backtracking solver and display it. */
+	public void displayParallelSolution (ActionEvent event) {
+		if (isSolving()) {
+			return;
+		}
+		resetBoard(new ActionEvent());
+		SudokuBoard puzzle = new SudokuBoard(guiBoard.getSudokuBoard());
+		Duration deadline = solveDeadline;
+		solveInBackground(new Task<>() {
+			@Override
+			protected Optional<SudokuBoard> call () throws TimeoutException {
+				AtomicBoolean timedOut = new AtomicBoolean();
+				BooleanSupplier stopped = stopCheck(this, deadline, timedOut);
+				updateMessage("Solving in parallel...");
+				Optional<Configuration> solution = propagateBoard(puzzle).flatMap(board -> new ParallelBacktracker()
+						.solve(board, stopped));
+				if (solution.isEmpty() && timedOut.get()) {
+					throw new TimeoutException();
+				}
+				return solution.map(config -> ( (CompactSudokuBoard) config ).toSudokuBoard());
+			}
+		});
+	}
+
+	/** Find the solution to the loaded Sudoku puzzle with the Dancing Links solver and display it. */
+	public void displayDancingLinksSolution (ActionEvent event) {
+		if (isSolving()) {
+			return;
+		}
+		resetBoard(new ActionEvent());
+		SudokuBoard puzzle = new SudokuBoard(guiBoard.getSudokuBoard());
+		Duration deadline = solveDeadline;
+		solveInBackground(new Task<>() {
+			@Override
+			protected Optional<SudokuBoard> call () throws TimeoutException {
+				AtomicBoolean timedOut = new AtomicBoolean();
+				BooleanSupplier stopped = stopCheck(this, deadline, timedOut);
+				updateMessage("Solving...");
+				Optional<SudokuBoard> solution = new DancingLinks().solve(puzzle, stopped);
+				if (solution.isEmpty() && timedOut.get()) {
+					throw new TimeoutException();
+				}
+				return solution;
+			}
+		});
+	}
+
+	/**
+	 * Count the solutions of the current board in the background and tell the user whether it has a unique
+	 * solution.
+	 *
+	 * @param event ActionEvent from button press
+	 */
+	public void displaySolutionCount (ActionEvent event) {
+		if (isSolving()) {
+			return;
+		}
+		CompactSudokuBoard board = new CompactSudokuBoard(guiBoard.getSudokuBoard());
+		board.setSearchHeuristic(SearchHeuristic.MINIMUM_REMAINING_VALUES);
+		Duration deadline = solveDeadline;
+		runInBackground(new Task<>() {
+			@Override
+			protected SolutionCount call () throws TimeoutException {
+				AtomicBoolean timedOut = new AtomicBoolean();
+				BooleanSupplier stopped = stopCheck(this, deadline, timedOut);
+				updateMessage("Counting solutions...");
+				long count = new Backtracker(false).countSolutionsInPlace(board, 2, stopped);
+				if (timedOut.get()) {
+					throw new TimeoutException();
+				}
+				return SolutionCount.of(count);
+			}
+		}, this::showSolutionCount, "The solutions could not be counted");
+	}
+
+	/**
+	 * Create the check a background search polls to know when to stop. The deadline starts counting now, and
+	 * timedOut is set only when the search is stopped because the deadline passed, so a search that finishes or
+	 * is cancelled right at the deadline is not reported as timed out.
+	 *
+	 * @param task     the task running the search
+	 * @param deadline how long the search may run
+	 * @param timedOut set when the deadline stops the search
+	 * @return a check that is true once the task is cancelled or the deadline has passed
+	 */
+	private static BooleanSupplier stopCheck (Task<?> task, Duration deadline, AtomicBoolean timedOut) {
+		long stopTime = System.nanoTime() + deadline.toNanos();
+		return () -> {
+			if (task.isCancelled()) {
+				return true;
+			}
+			if (System.nanoTime() > stopTime) {
+				timedOut.set(true);
+				return true;
+			}
+			return false;
+		};
+	}
+
+	/**
+	 * Tell the user whether the current board has a unique solution.
+	 *
+	 * @param count how many solutions the board has
+	 */
+	private void showSolutionCount (SolutionCount count) {
+		switch (count) {
+			case NONE -> errorMessage("The puzzle has no solution.");
+			case UNIQUE -> successMessage("The puzzle has a unique solution.");
+			case MULTIPLE -> errorMessage("The puzzle has more than\none solution.");
+		}
+	}
+
+	/**
+	 * Display the given solution on the GUI Board, or an error message if there is no solution.
+	 *
+	 * @param solution solved SudokuBoard, if one was found
+	 */
+	private void showSolution (Optional<SudokuBoard> solution) {
 		if (solution.isEmpty()) {
 			errorMessage("No solution was found.");
 		} else {
-			guiBoard.setSudokuBoard((SudokuBoard) solution.get());
+			guiBoard.setSudokuBoard(solution.get());
 			updateBoardDisplay();
 			successMessage("The puzzle is solved!");
 		}
@@ -0,0 +1,257 @@
+package sudoku.backtracking;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An asynchronous facade over the backtracking algorithm. Each search is an
+ * {@link IterativeBacktracker} run a slice of nodes at a time on an executor,
+ * and its result is delivered through a CompletableFuture, so a caller can
+ * chain work onto a solution instead of blocking a thread until it is found.
+ * <p>
+ * After every slice the search is handed back to the executor, so as long as
+ * the executor runs tasks in the order they are submitted, many searches
+ * share its threads fairly and an easy puzzle is never stuck behind a hard
+ * one. A ForkJoinPool, even in async mode, runs a task submitted from one
+ * of its own threads before others, so it keeps running the same search
+ * instead. The future is checked between slices: cancelling it, or
+ * completing it any other way, stops the search at the end of the current
+ * slice.
+ * </p>
+ * <p>
+ * The solution found is the same one {@link Backtracker#solve(Configuration)}
+ * returns. A SudokuBoard is a configuration, but a CompactSudokuBoard built
+ * from it is searched much faster.
+ * </p>
+ */
+public class AsyncBacktracker {
+	/** Default number of nodes searched before a search yields its thread */
+	public static final long DEFAULT_NODES_PER_SLICE = 10_000;
+	/** Default number of searches solveAll runs at once */
+	public static final int DEFAULT_SEARCHES_IN_FLIGHT = 4 * Runtime.getRuntime().availableProcessors();
+
+	/** Pool shared by every backtracker created without an executor, running tasks in submission order */
+	private static final ExecutorService DEFAULT_POOL = Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors(), task -> {
+				Thread thread = new Thread(task, "async-backtracker");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	/** The executor searches run on */
+	private final Executor executor;
+	/** Number of nodes searched before a search yields its thread */
+	private final long nodesPerSlice;
+
+	/**
+	 * Initialize a new asynchronous backtracker running in a shared fixed
+	 * thread pool, with one daemon thread per processor.
+	 */
+	public AsyncBacktracker () {
+		this(DEFAULT_POOL, DEFAULT_NODES_PER_SLICE);
+	}
+
+	/**
+	 * Initialize a new asynchronous backtracker.
+	 *
+	 * @param executor      The executor to run searches on, which should run
+	 *                      tasks in the order they are submitted
+	 * @param nodesPerSlice Number of nodes searched before a search yields
+	 *                      its thread, which bounds how long a cancelled
+	 *                      search keeps running
+	 * @throws IllegalArgumentException if nodesPerSlice is less than 1
+	 */
+	public AsyncBacktracker (Executor executor, long nodesPerSlice) {
+		if (nodesPerSlice < 1) {
+			throw new IllegalArgumentException("A slice must search at least one node, not " + nodesPerSlice);
+		}
+		this.executor = executor;
+		this.nodesPerSlice = nodesPerSlice;
+	}
+
+	/**
+	 * Start searching for a solution to a given configuration.
+	 *
+	 * @param config A valid configuration
+	 * @return A future completed with the solution config, or empty if no
+	 * solution, or completed exceptionally if the search throws or the
+	 * executor rejects it. Cancelling the future stops the search.
+	 */
+	public CompletableFuture<Optional<Configuration>> solve (Configuration config) {
+		CompletableFuture<Optional<Configuration>> future = new CompletableFuture<>();
+		schedule(future, () -> {
+			IterativeBacktracker backtracker = new IterativeBacktracker(config);
+			runSlice(future, backtracker);
+		});
+		return future;
+	}
+
+	/**
+	 * Search for the solutions of many configurations, running at most
+	 * {@link AsyncBacktracker#DEFAULT_SEARCHES_IN_FLIGHT} searches at once.
+	 *
+	 * @param configs Valid configurations
+	 * @return A future completed with the solution of each config, in the
+	 * same order, or completed exceptionally as soon as one search fails.
+	 * Cancelling the future stops every search still running.
+	 * @see AsyncBacktracker#solveAll(Collection, int)
+	 */
+	public CompletableFuture<List<Optional<Configuration>>> solveAll (Collection<? extends Configuration> configs) {
+		return solveAll(configs, DEFAULT_SEARCHES_IN_FLIGHT);
+	}
+
+	/**
+	 * Search for the solutions of many configurations, running at most
+	 * maxInFlight searches at once and starting the next configuration as
+	 * soon as one finishes. The running searches share the executor, each
+	 * yielding after every slice, so a hard configuration holds back only
+	 * one of the searches in flight rather than every one after it.
+	 *
+	 * @param configs     Valid configurations
+	 * @param maxInFlight The most searches running at once
+	 * @return A future completed with the solution of each config, in the
+	 * same order, or completed exceptionally as soon as one search fails.
+	 * Cancelling the future stops every search still running, and no more
+	 * are started.
+	 * @throws IllegalArgumentException if maxInFlight is less than 1
+	 */
+	public CompletableFuture<List<Optional<Configuration>>> solveAll (Collection<? extends Configuration> configs,
+	                                                                  int maxInFlight) {
+		if (maxInFlight < 1) {
+			throw new IllegalArgumentException("At least one search must run at once, not " + maxInFlight);
+		}
+		Batch batch = new Batch(new ArrayList<>(configs));
+		if (batch.configs.isEmpty()) {
+			batch.all.complete(new ArrayList<>());
+		}
+		for (int i = 0; i < Math.min(maxInFlight, batch.configs.size()); i++) {
+			batch.startNext();
+		}
+		// cancelling, or failing, the whole batch stops the searches left
+		batch.all.whenComplete((ignored, error) -> {
+			if (error != null) {
+				batch.cancelStarted();
+			}
+		});
+		return batch.all;
+	}
+
+	/**
+	 * Run one slice of a search, then either complete its future or hand the
+	 * search back to the executor for another slice.
+	 *
+	 * @param future      The future of the search
+	 * @param backtracker The search
+	 */
+	private void runSlice (CompletableFuture<Optional<Configuration>> future, IterativeBacktracker backtracker) {
+		if (future.isDone()) {
+			return;
+		}
+		if (backtracker.step(nodesPerSlice) == IterativeBacktracker.Status.RUNNING) {
+			schedule(future, () -> runSlice(future, backtracker));
+		} else {
+			future.complete(backtracker.getSolution());
+		}
+	}
+
+	/**
+	 * Run part of a search on the executor, completing its future
+	 * exceptionally if the executor rejects it or the search throws.
+	 *
+	 * @param future The future of the search
+	 * @param slice  The part of the search to run
+	 */
+	private void schedule (CompletableFuture<Optional<Configuration>> future, Runnable slice) {
+		try {
+			executor.execute(() -> {
+				try {
+					slice.run();
+				} catch (RuntimeException e) {
+					future.completeExceptionally(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(e);
+		}
+	}
+
+	/** The searches of one call to solveAll, started one at a time as earlier ones finish. */
+	private class Batch {
+		/** The configurations to solve, in order */
+		private final List<Configuration> configs;
+		/** The future of each search started so far, or null if not started */
+		private final AtomicReferenceArray<CompletableFuture<Optional<Configuration>>> futures;
+		/** The solution of each finished search */
+		private final List<Optional<Configuration>> solutions;
+		/** Index of the next configuration to start searching */
+		private final AtomicInteger next;
+		/** Number of searches not yet finished */
+		private final AtomicInteger remaining;
+		/** The future of the whole batch */
+		private final CompletableFuture<List<Optional<Configuration>>> all;
+
+		/**
+		 * Create a new batch, with no search started.
+		 *
+		 * @param configs The configurations to solve, in order
+		 */
+		private Batch (List<Configuration> configs) {
+			this.configs = configs;
+			this.futures = new AtomicReferenceArray<>(configs.size());
+			this.solutions = new ArrayList<>(Collections.nCopies(configs.size(), Optional.empty()));
+			this.next = new AtomicInteger();
+			this.remaining = new AtomicInteger(configs.size());
+			this.all = new CompletableFuture<>();
+		}
+
+		/** Start searching the next configuration, unless none are left or the batch is done. */
+		private void startNext () {
+			int i = next.getAndIncrement();
+			if (i >= configs.size() || all.isDone()) {
+				return;
+			}
+			CompletableFuture<Optional<Configuration>> future = solve(configs.get(i));
+			futures.set(i, future);
+			// the batch may have been cancelled before this search was recorded
+			if (all.isDone()) {
+				future.cancel(false);
+			}
+			future.whenComplete((solution, error) -> {
+				if (error != null) {
+					all.completeExceptionally(error);
+					return;
+				}
+				synchronized (solutions) {
+					solutions.set(i, solution);
+				}
+				if (remaining.decrementAndGet() == 0) {
+					synchronized (solutions) {
+						all.complete(new ArrayList<>(solutions));
+					}
+				} else {
+					startNext();
+				}
+			});
+		}
+
+		/** Cancel every search started so far. */
+		private void cancelStarted () {
+			for (int i = 0; i < futures.length(); i++) {
+				CompletableFuture<Optional<Configuration>> future = futures.get(i);
+				if (future != null) {
+					future.cancel(false);
+				}
+			}
+		}
+	}
+}
@@ -1,11 +1,14 @@
 package sudoku.backtracking;
 
+import java.util.Iterator;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
 
 /**
  * This class represents the classic recursive backtracking algorithm.
  * It has a solver that can take a valid configuration and return a
- * solution, if one exists.
+ * solution, if one exists, and a solver that searches by changing a
+ * single mutable configuration in place. Both can also count solutions.
  *
  * @author sps (Sean Strout @ RIT CS)
  * @author jeh (James Heliotis @ RIT CS)
@@ -16,18 +19,100 @@ public class Backtracker {
 	 */
 	private final boolean debug;
 
+	/*
+	 * Statistics of the last search, or null if they are not collected
+	 */
+	private final SolverStatistics statistics;
+
 	/**
 	 * Initialize a new backtracker
 	 *
 	 * @param debug Is debugging output enabled?
 	 */
 	public Backtracker (boolean debug) {
+		this(debug, false);
+	}
+
+	/**
+	 * Initialize a new backtracker
+	 *
+	 * @param debug      Is debugging output enabled?
+	 * @param statistics Are statistics collected for every search? When
+	 *                   disabled, no counting is done at all
+	 */
+	public Backtracker (boolean debug, boolean statistics) {
 		this.debug = debug;
+		this.statistics = statistics ? new SolverStatistics() : null;
 		if (this.debug) {
 			System.out.println("Backtracker debugging enabled...");
 		}
 	}
 
+	/**
+	 * Get the statistics of the last search run by this backtracker.
+	 *
+	 * @return The statistics, or empty if they are not collected
+	 */
+	public Optional<SolverStatistics> getStatistics () {
+		return Optional.ofNullable(statistics);
+	}
+
+	/**
+	 * Reset the statistics, if collected, at the start of a search.
+	 *
+	 * @return The start time of the search, or 0 if not collected
+	 */
+	private long startSearch () {
+		if (statistics == null) {
+			return 0;
+		}
+		statistics.reset();
+		return System.nanoTime();
+	}
+
+	/**
+	 * Record the wall time of a search, if statistics are collected.
+	 *
+	 * @param startTime The value returned by startSearch
+	 */
+	private void endSearch (long startTime) {
+		if (statistics != null) {
+			statistics.setElapsedNanos(System.nanoTime() - startTime);
+		}
+	}
+
+	/**
+	 * Record that a configuration was reached, if statistics are collected.
+	 *
+	 * @param depth Depth of the configuration
+	 */
+	private void countReached (int depth) {
+		if (statistics != null) {
+			statistics.nodeReached(depth);
+		}
+	}
+
+	/** Record that a configuration was expanded, if statistics are collected. */
+	private void countExpanded () {
+		if (statistics != null) {
+			statistics.nodeExpanded();
+		}
+	}
+
+	/** Record an invalid successor, if statistics are collected. */
+	private void countInvalid () {
+		if (statistics != null) {
+			statistics.invalidSuccessor();
+		}
+	}
+
+	/** Record a backtrack, if statistics are collected. */
+	private void countBacktrack () {
+		if (statistics != null) {
+			statistics.backtracked();
+		}
+	}
+
 	/**
 	 * A utility routine for printing out various debug messages.
 	 *
@@ -35,7 +120,7 @@ public class Backtracker {
 	 *               successor, e.g.)
 	 * @param config The config to display
 	 */
-	private void debugPrint (String msg, Configuration config) {
+	private void debugPrint (String msg, Object config) {
 		if (this.debug) {
 			System.out.println(msg + ": " + config);
 		}
@@ -48,24 +133,246 @@ public class Backtracker {
 	 * @return A solution config, or null if no solution
 	 */
 	public Optional<Configuration> solve (Configuration config) {
+		long startTime = startSearch();
+		Optional<Configuration> sol = solve(config, 0);
+		endSearch(startTime);
+		return sol;
+	}
+
+	/**
+	 * Recursive step of {@link Backtracker#solve(Configuration)}.
+	 *
+	 * @param config A valid configuration
+	 * @param depth  Depth of config in the search tree
+	 * @return A solution config, or empty if no solution
+	 */
+	private Optional<Configuration> solve (Configuration config, int depth) {
 		debugPrint("Current config", config);
+		countReached(depth);
 		if (config.isGoal()) {
 			debugPrint("\tGoal config", config);
 			return Optional.of(config);
 		} else {
-			for (Configuration child : config.getSuccessors()) {
+			countExpanded();
+			// successors are created lazily, only once the search reaches them
+			Iterator<Configuration> successors = config.successorIterator();
+			while (successors.hasNext()) {
+				Configuration child = successors.next();
 				if (child.isValid()) {
 					debugPrint("\tValid successor", child);
-					Optional<Configuration> sol = solve(child);
+					Optional<Configuration> sol = solve(child, depth + 1);
 					if (sol.isPresent()) {
 						return sol;
 					}
 				} else {
 					debugPrint("\tInvalid successor", child);
+					countInvalid();
 				}
 			}
 			// implicit backtracking happens here
+			countBacktrack();
 		}
 		return Optional.empty();
 	}
+
+	/**
+	 * Try to find a solution, if one exists, by making and undoing moves on
+	 * the given configuration instead of creating successors.
+	 *
+	 * @param config A valid mutable configuration
+	 * @return true if a solution was found, in which case config is left
+	 * holding the solution; false otherwise, with config back in its
+	 * original state
+	 */
+	public boolean solveInPlace (MutableConfiguration config) {
+		long startTime = startSearch();
+		boolean solved = solveInPlace(config, 0);
+		endSearch(startTime);
+		return solved;
+	}
+
+	/**
+	 * Recursive step of {@link Backtracker#solveInPlace(MutableConfiguration)}.
+	 *
+	 * @param config A valid mutable configuration
+	 * @param depth  Depth of config in the search tree
+	 * @return true if a solution was found
+	 */
+	private boolean solveInPlace (MutableConfiguration config, int depth) {
+		debugPrint("Current config", config);
+		countReached(depth);
+		if (config.isGoal()) {
+			debugPrint("\tGoal config", config);
+			return true;
+		}
+		countExpanded();
+		for (int move = config.firstMove(); move != MutableConfiguration.NO_MOVE; move = config.nextMove(move)) {
+			config.makeMove(move);
+			if (config.isValid()) {
+				debugPrint("\tValid move", config);
+				if (solveInPlace(config, depth + 1)) {
+					return true;
+				}
+			} else {
+				debugPrint("\tInvalid move", config);
+				countInvalid();
+			}
+			// explicit backtracking happens here
+			config.undoMove(move);
+		}
+		countBacktrack();
+		return false;
+	}
+
+	/**
+	 * Count the solutions of a given configuration, stopping as soon as
+	 * limit solutions have been found.
+	 *
+	 * @param config A valid configuration
+	 * @param limit  The most solutions to count
+	 * @return The number of solutions, at most limit
+	 */
+	public long countSolutions (Configuration config, long limit) {
+		long startTime = startSearch();
+		long count = countSolutions(config, limit, 0);
+		endSearch(startTime);
+		return count;
+	}
+
+	/**
+	 * Recursive step of {@link Backtracker#countSolutions(Configuration, long)}.
+	 *
+	 * @param config A valid configuration
+	 * @param limit  The most solutions to count
+	 * @param depth  Depth of config in the search tree
+	 * @return The number of solutions, at most limit
+	 */
+	private long countSolutions (Configuration config, long limit, int depth) {
+		debugPrint("Current config", config);
+		countReached(depth);
+		if (config.isGoal()) {
+			debugPrint("\tGoal config", config);
+			return 1;
+		}
+		countExpanded();
+		long count = 0;
+		Iterator<Configuration> successors = config.successorIterator();
+		while (count < limit && successors.hasNext()) {
+			Configuration child = successors.next();
+			if (child.isValid()) {
+				debugPrint("\tValid successor", child);
+				count += countSolutions(child, limit - count, depth + 1);
+			} else {
+				debugPrint("\tInvalid successor", child);
+				countInvalid();
+			}
+		}
+		if (count == 0) {
+			countBacktrack();
+		}
+		return count;
+	}
+
+	/**
+	 * Count every solution of a given configuration.
+	 *
+	 * @param config A valid configuration
+	 * @return The number of solutions
+	 */
+	public long countSolutions (Configuration config) {
+		return countSolutions(config, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Check whether a given configuration has no solution, a unique
+	 * solution, or more than one, stopping as soon as a second solution is
+	 * found.
+	 *
+	 * @param config A valid configuration
+	 * @return How many solutions the configuration has
+	 */
+	public SolutionCount checkUniqueness (Configuration config) {
+		return SolutionCount.of(countSolutions(config, 2));
+	}
+
+	/**
+	 * Count the solutions of a given configuration by making and undoing
+	 * moves on it, stopping as soon as limit solutions have been found.
+	 *
+	 * @param config A valid mutable configuration
+	 * @param limit  The most solutions to count
+	 * @return The number of solutions, at most limit; config is left in its
+	 * original state
+	 */
+	public long countSolutionsInPlace (MutableConfiguration config, long limit) {
+		return countSolutionsInPlace(config, limit, () -> false);
+	}
+
+	/**
+	 * Count the solutions of a given configuration by making and undoing
+	 * moves on it, stopping as soon as limit solutions have been found or
+	 * the given condition becomes true.
+	 *
+	 * @param config  A valid mutable configuration
+	 * @param limit   The most solutions to count
+	 * @param stopped Checked at every node; the search stops once it is true
+	 * @return The number of solutions, at most limit, or the number found
+	 * before the search was stopped; config is left in its original state
+	 */
+	public long countSolutionsInPlace (MutableConfiguration config, long limit, BooleanSupplier stopped) {
+		long startTime = startSearch();
+		long count = countSolutionsInPlace(config, limit, stopped, 0);
+		endSearch(startTime);
+		return count;
+	}
+
+	/**
+	 * Recursive step of
+	 * {@link Backtracker#countSolutionsInPlace(MutableConfiguration, long, BooleanSupplier)}.
+	 *
+	 * @param config  A valid mutable configuration
+	 * @param limit   The most solutions to count
+	 * @param stopped Condition that stops the whole search once true
+	 * @param depth   Depth of config in the search tree
+	 * @return The number of solutions, at most limit
+	 */
+	private long countSolutionsInPlace (MutableConfiguration config, long limit, BooleanSupplier stopped, int depth) {
+		if (stopped.getAsBoolean()) {
+			return 0;
+		}
+		debugPrint("Current config", config);
+		countReached(depth);
+		if (config.isGoal()) {
+			debugPrint("\tGoal config", config);
+			return 1;
+		}
+		countExpanded();
+		long count = 0;
+		for (int move = config.firstMove(); move != MutableConfiguration.NO_MOVE && count < limit; move = config.nextMove(move)) {
+			config.makeMove(move);
+			if (config.isValid()) {
+				debugPrint("\tValid move", config);
+				count += countSolutionsInPlace(config, limit - count, stopped, depth + 1);
+			} else {
+				debugPrint("\tInvalid move", config);
+				countInvalid();
+			}
+			config.undoMove(move);
+		}
+		if (count == 0) {
+			countBacktrack();
+		}
+		return count;
+	}
+
+	/**
+	 * Check whether a given configuration has no solution, a unique
+	 * solution, or more than one, by making and undoing moves on it.
+	 *
+	 * @param config A valid mutable configuration
+	 * @return How many solutions the configuration has
+	 */
+	public SolutionCount checkUniquenessInPlace (MutableConfiguration config) {
+		return SolutionCount.of(countSolutionsInPlace(config, 2));
+	}
 }
@@ -1,6 +1,8 @@
 package sudoku.backtracking;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 
 /**
  * The representation of a single configuration for a puzzle.
@@ -18,6 +20,22 @@ public interface Configuration {
 	 */
 	public Collection<Configuration> getSuccessors ();
 
+	/**
+	 * Get an iterator over the successors from the current one. Implementations
+	 * should create each successor only when the iterator reaches it, so that
+	 * successors which are never visited are never built. By default, this
+	 * iterates over the collection from {@link Configuration#getSuccessors()}.
+	 *
+	 * @return Iterator over all successors, valid and invalid
+	 */
+	public default Iterator<Configuration> successorIterator () {
+		Collection<Configuration> successors = getSuccessors();
+		if (successors == null) {
+			return Collections.emptyIterator();
+		}
+		return successors.iterator();
+	}
+
 	/**
 	 * Is the current configuration valid or not?
 	 *
@@ -0,0 +1,144 @@
+package sudoku.backtracking;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * The backtracking algorithm, driven by an explicit stack instead of Java
+ * recursion. Each entry on the stack is the iterator over the successors of
+ * a configuration on the current search path, so the search can be run a
+ * few nodes at a time, paused, inspected, and resumed later from where it
+ * stopped, including from a different thread.
+ * <p>
+ * The order configurations are visited in, and the solution found, are the
+ * same as {@link Backtracker#solve(Configuration)}.
+ * </p>
+ */
+public class IterativeBacktracker {
+	/** The state of the search */
+	public enum Status {
+		/** The search has nodes left to visit */
+		RUNNING,
+		/** A goal configuration was found */
+		SOLVED,
+		/** Every node was visited without finding a goal */
+		EXHAUSTED
+	}
+
+	/** Successors left to visit for each configuration on the current search path */
+	private final Deque<Iterator<Configuration>> stack;
+	/** The state of the search */
+	private Status status;
+	/** The goal configuration, once found */
+	private Configuration solution;
+	/** The number of successors taken from the stack so far */
+	private long nodesVisited;
+	/** The deepest the search path has been */
+	private int maxDepth;
+
+	/**
+	 * Initialize a new search from a given configuration. No search is done
+	 * until {@link IterativeBacktracker#step(long)} or
+	 * {@link IterativeBacktracker#run()} is called.
+	 *
+	 * @param config A valid configuration
+	 */
+	public IterativeBacktracker (Configuration config) {
+		this.stack = new ArrayDeque<>();
+		this.status = Status.RUNNING;
+		this.solution = null;
+		this.nodesVisited = 0;
+		this.maxDepth = 0;
+		expand(config);
+	}
+
+	/**
+	 * Either record the given configuration as the solution, or push its
+	 * successors to be visited next.
+	 *
+	 * @param config A valid configuration
+	 */
+	private void expand (Configuration config) {
+		if (config.isGoal()) {
+			solution = config;
+			status = Status.SOLVED;
+			stack.clear();
+		} else {
+			stack.push(config.successorIterator());
+			maxDepth = Math.max(maxDepth, stack.size());
+		}
+	}
+
+	/**
+	 * Continue the search for at most the given number of nodes, then
+	 * yield.
+	 *
+	 * @param maxNodes The most successors to visit before returning
+	 * @return The state of the search after this step
+	 */
+	public synchronized Status step (long maxNodes) {
+		for (long budget = maxNodes; status == Status.RUNNING && budget > 0; ) {
+			Iterator<Configuration> successors = stack.peek();
+			if (successors == null) {
+				status = Status.EXHAUSTED;
+			} else if (!successors.hasNext()) {
+				// explicit backtracking happens here
+				stack.pop();
+			} else {
+				Configuration child = successors.next();
+				++nodesVisited;
+				--budget;
+				if (child.isValid()) {
+					expand(child);
+				}
+			}
+		}
+		return status;
+	}
+
+	/**
+	 * Continue the search until it finds a solution or runs out of nodes.
+	 *
+	 * @return The state of the search, either SOLVED or EXHAUSTED
+	 */
+	public Status run () {
+		return step(Long.MAX_VALUE);
+	}
+
+	/**
+	 * @return The state of the search
+	 */
+	public synchronized Status getStatus () {
+		return status;
+	}
+
+	/**
+	 * @return The solution config, or empty if none has been found yet
+	 */
+	public synchronized Optional<Configuration> getSolution () {
+		return Optional.ofNullable(solution);
+	}
+
+	/**
+	 * @return The number of successors visited so far
+	 */
+	public synchronized long getNodesVisited () {
+		return nodesVisited;
+	}
+
+	/**
+	 * @return The length of the current search path
+	 */
+	public synchronized int getDepth () {
+		return stack.size();
+	}
+
+	/**
+	 * @return The length of the longest search path so far
+	 */
+	public synchronized int getMaxDepth () {
+		return maxDepth;
+	}
+}
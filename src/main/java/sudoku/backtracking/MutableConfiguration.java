@@ -0,0 +1,57 @@
+package sudoku.backtracking;
+
+/**
+ * The representation of a puzzle configuration that is changed in place
+ * as the Backtracker searches, instead of being copied for every successor.
+ * A move is an int whose meaning is chosen by the implementation; the
+ * Backtracker only asks for moves, makes them, tests them and undoes them.
+ * Moves are always undone in the reverse order they were made.
+ */
+public interface MutableConfiguration {
+	/** The move returned when there are no more moves to try */
+	public static final int NO_MOVE = -1;
+
+	/**
+	 * Get the first move that can be made from the current configuration.
+	 *
+	 * @return a move, or NO_MOVE if there are none
+	 */
+	public int firstMove ();
+
+	/**
+	 * Get the move to try after the given move, from the same configuration
+	 * the given move was generated from.
+	 *
+	 * @param move the previous move
+	 * @return the next move, or NO_MOVE if there are none left
+	 */
+	public int nextMove (int move);
+
+	/**
+	 * Apply the given move to this configuration.
+	 *
+	 * @param move the move to make
+	 */
+	public void makeMove (int move);
+
+	/**
+	 * Revert the given move, which must be the last move made.
+	 *
+	 * @param move the move to undo
+	 */
+	public void undoMove (int move);
+
+	/**
+	 * Is the current configuration valid or not?
+	 *
+	 * @return true if valid; false otherwise
+	 */
+	public boolean isValid ();
+
+	/**
+	 * Is the current configuration a goal?
+	 *
+	 * @return true if goal; false otherwise
+	 */
+	public boolean isGoal ();
+}
@@ -0,0 +1,247 @@
+package sudoku.backtracking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A parallel version of the Backtracker. The top levels of the search tree
+ * are split into fork/join tasks, which are spread over the cores of a
+ * ForkJoinPool by work-stealing, and each task below the split depth runs a
+ * sequential backtracking search.
+ * <p>
+ * Each node in the tree is identified by its path: the index of every
+ * successor taken from the root. When a task finds a goal, every task whose
+ * subtree lies entirely to the right of that goal's path stops at its next
+ * node, while tasks to its left keep searching, since they may hold a goal
+ * the sequential Backtracker would have found first. The solution returned is
+ * therefore always the same one {@link Backtracker#solve(Configuration)}
+ * returns.
+ * </p>
+ * <p>
+ * A search can also be stopped from outside, in which case every task stops
+ * at its next node.
+ * </p>
+ */
+public class ParallelBacktracker {
+	/** Default depth of the search tree at which tasks stop splitting */
+	public static final int DEFAULT_SPLIT_DEPTH = 3;
+
+	/** The pool the search tasks run in */
+	private final ForkJoinPool pool;
+	/** Depth of the search tree at which tasks stop splitting and search sequentially */
+	private final int splitDepth;
+
+	/**
+	 * Initialize a new parallel backtracker running in the common ForkJoinPool.
+	 */
+	public ParallelBacktracker () {
+		this(ForkJoinPool.commonPool(), DEFAULT_SPLIT_DEPTH);
+	}
+
+	/**
+	 * Initialize a new parallel backtracker.
+	 *
+	 * @param pool       The pool to run search tasks in
+	 * @param splitDepth Depth at which tasks stop splitting into subtasks
+	 */
+	public ParallelBacktracker (ForkJoinPool pool, int splitDepth) {
+		this.pool = pool;
+		this.splitDepth = splitDepth;
+	}
+
+	/**
+	 * Try to find a solution, if one exists, for a given configuration.
+	 *
+	 * @param config A valid configuration
+	 * @return The same solution config the sequential Backtracker finds, or
+	 * empty if no solution
+	 */
+	public Optional<Configuration> solve (Configuration config) {
+		return solve(config, () -> false);
+	}
+
+	/**
+	 * Try to find a solution, if one exists, for a given configuration,
+	 * giving up as soon as the given condition becomes true.
+	 *
+	 * @param config  A valid configuration
+	 * @param stopped Checked at every node; the search stops once it is true
+	 * @return The same solution config the sequential Backtracker finds, or
+	 * if the search was stopped after finding a solution, the earliest one
+	 * found in depth-first order; empty if no solution was found
+	 */
+	public Optional<Configuration> solve (Configuration config, BooleanSupplier stopped) {
+		AtomicReference<Goal> best = new AtomicReference<>();
+		pool.invoke(new SearchTask(best, stopped, config, new int[0]));
+		Goal goal = best.get();
+		return ( goal == null ) ? Optional.empty() : Optional.of(goal.config);
+	}
+
+	/**
+	 * Compare two paths in depth-first search order, only up to the length of
+	 * the shorter path.
+	 *
+	 * @param path   A path
+	 * @param length Number of entries in path
+	 * @param other  Another path
+	 * @return negative, zero or positive as path is before, shares a prefix
+	 * with, or is after other
+	 */
+	private static int comparePaths (int[] path, int length, int[] other) {
+		int shared = Math.min(length, other.length);
+		for (int i = 0; i < shared; i++) {
+			if (path[i] != other[i]) {
+				return Integer.compare(path[i], other[i]);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Should the subtree at the given path stop searching? It should if a
+	 * goal has been found before it in depth-first search order.
+	 *
+	 * @param best   The best goal found so far
+	 * @param path   Path to the subtree
+	 * @param length Number of entries in path
+	 * @return true if the subtree should stop
+	 */
+	private static boolean isAfterGoal (AtomicReference<Goal> best, int[] path, int length) {
+		Goal goal = best.get();
+		return goal != null && comparePaths(path, length, goal.path) > 0;
+	}
+
+	/**
+	 * Record a goal, keeping it only if it comes before the best goal found
+	 * so far in depth-first search order.
+	 *
+	 * @param best The best goal found so far
+	 * @param goal The goal found
+	 */
+	private static void offer (AtomicReference<Goal> best, Goal goal) {
+		Goal current = best.get();
+		while (current == null || comparePaths(goal.path, goal.path.length, current.path) < 0) {
+			if (best.compareAndSet(current, goal)) {
+				return;
+			}
+			current = best.get();
+		}
+	}
+
+	/** A goal configuration and the path it was found at. */
+	private static class Goal {
+		/** Index of every successor taken from the root */
+		private final int[] path;
+		/** The goal configuration */
+		private final Configuration config;
+
+		/**
+		 * Create a new goal.
+		 *
+		 * @param path   Path to the goal
+		 * @param config The goal configuration
+		 */
+		private Goal (int[] path, Configuration config) {
+			this.path = path;
+			this.config = config;
+		}
+	}
+
+	/** A task searching the subtree below one configuration. Tasks are never serialized. */
+	@SuppressWarnings("serial")
+	private class SearchTask extends RecursiveAction {
+		/** The best goal found so far, shared by every task */
+		private final AtomicReference<Goal> best;
+		/** Condition that stops the whole search once true */
+		private final BooleanSupplier stopped;
+		/** The configuration at the root of this task's subtree */
+		private final Configuration config;
+		/** Path from the root to this task's configuration */
+		private final int[] path;
+
+		/**
+		 * Create a new task.
+		 *
+		 * @param best    The best goal found so far
+		 * @param stopped Condition that stops the whole search once true
+		 * @param config  The configuration to search from
+		 * @param path    Path to config
+		 */
+		private SearchTask (AtomicReference<Goal> best, BooleanSupplier stopped, Configuration config, int[] path) {
+			this.best = best;
+			this.stopped = stopped;
+			this.config = config;
+			this.path = path;
+		}
+
+		/** Split into a subtask per valid successor, or search sequentially below the split depth. */
+		@Override
+		protected void compute () {
+			if (stopped.getAsBoolean() || isAfterGoal(best, path, path.length)) {
+				return;
+			}
+			if (config.isGoal()) {
+				offer(best, new Goal(path, config));
+				return;
+			}
+			if (path.length >= splitDepth) {
+				int[] buffer = Arrays.copyOf(path, path.length + 16);
+				search(config, buffer, path.length);
+				return;
+			}
+			List<SearchTask> subtasks = new ArrayList<>();
+			Iterator<Configuration> successors = config.successorIterator();
+			for (int index = 0; successors.hasNext(); index++) {
+				Configuration child = successors.next();
+				if (child.isValid()) {
+					int[] childPath = Arrays.copyOf(path, path.length + 1);
+					childPath[path.length] = index;
+					subtasks.add(new SearchTask(best, stopped, child, childPath));
+				}
+			}
+			invokeAll(subtasks);
+		}
+
+		/**
+		 * Sequential backtracking search below the split depth, stopping as
+		 * soon as a goal is found, a goal is found before this subtree, or the
+		 * whole search is stopped.
+		 *
+		 * @param current The configuration being searched
+		 * @param buffer  Path to current, with room to grow
+		 * @param length  Number of entries in buffer
+		 * @return true if the search should stop
+		 */
+		private boolean search (Configuration current, int[] buffer, int length) {
+			if (stopped.getAsBoolean() || isAfterGoal(best, buffer, length)) {
+				return true;
+			}
+			if (current.isGoal()) {
+				offer(best, new Goal(Arrays.copyOf(buffer, length), current));
+				return true;
+			}
+			if (buffer.length == length) {
+				buffer = Arrays.copyOf(buffer, length * 2);
+			}
+			Iterator<Configuration> successors = current.successorIterator();
+			for (int index = 0; successors.hasNext(); index++) {
+				Configuration child = successors.next();
+				if (child.isValid()) {
+					buffer[length] = index;
+					if (search(child, buffer, length + 1)) {
+						return true;
+					}
+				}
+			}
+			// implicit backtracking happens here
+			return false;
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package sudoku.backtracking;
+
+/**
+ * How many solutions a configuration has, as far as telling whether its
+ * solution is unique.
+ */
+public enum SolutionCount {
+	/** The configuration has no solution */
+	NONE,
+	/** The configuration has exactly one solution */
+	UNIQUE,
+	/** The configuration has two or more solutions */
+	MULTIPLE;
+
+	/**
+	 * Classify a number of solutions.
+	 *
+	 * @param count Number of solutions found
+	 * @return NONE for 0, UNIQUE for 1, MULTIPLE otherwise
+	 */
+	public static SolutionCount of (long count) {
+		if (count == 0) {
+			return NONE;
+		}
+		return ( count == 1 ) ? UNIQUE : MULTIPLE;
+	}
+}
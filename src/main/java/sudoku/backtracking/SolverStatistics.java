@@ -0,0 +1,117 @@
+package sudoku.backtracking;
+
+/**
+ * Counters describing the work done by one search of a Backtracker.
+ * They are only collected when the Backtracker is created with statistics
+ * enabled, and are reset at the start of every search.
+ */
+public class SolverStatistics {
+	/** Number of configurations whose successors were generated */
+	private long nodesExpanded;
+	/** Number of successors rejected because they were invalid */
+	private long invalidSuccessors;
+	/** Number of configurations left without finding a solution below them */
+	private long backtracks;
+	/** Deepest level of the search tree reached, the root being 0 */
+	private int maxDepth;
+	/** Wall time of the search, in nanoseconds */
+	private long elapsedNanos;
+
+	/** Create a new, zeroed set of statistics. */
+	public SolverStatistics () {
+	}
+
+	/** Zero every counter before a new search. */
+	void reset () {
+		nodesExpanded = 0;
+		invalidSuccessors = 0;
+		backtracks = 0;
+		maxDepth = 0;
+		elapsedNanos = 0;
+	}
+
+	/**
+	 * Record that the search reached a configuration at the given depth,
+	 * whether or not it is then expanded.
+	 *
+	 * @param depth Depth of the configuration
+	 */
+	void nodeReached (int depth) {
+		if (depth > maxDepth) {
+			maxDepth = depth;
+		}
+	}
+
+	/** Record that a configuration was expanded. */
+	void nodeExpanded () {
+		++nodesExpanded;
+	}
+
+	/** Record that a successor was rejected as invalid. */
+	void invalidSuccessor () {
+		++invalidSuccessors;
+	}
+
+	/** Record that the search backtracked out of a configuration. */
+	void backtracked () {
+		++backtracks;
+	}
+
+	/**
+	 * Record how long the search took.
+	 *
+	 * @param elapsedNanos Wall time in nanoseconds
+	 */
+	void setElapsedNanos (long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * @return Number of configurations whose successors were generated
+	 */
+	public long getNodesExpanded () {
+		return nodesExpanded;
+	}
+
+	/**
+	 * @return Number of successors rejected because they were invalid
+	 */
+	public long getInvalidSuccessors () {
+		return invalidSuccessors;
+	}
+
+	/**
+	 * @return Number of configurations left without finding a solution
+	 */
+	public long getBacktracks () {
+		return backtracks;
+	}
+
+	/**
+	 * @return Deepest level of the search tree reached
+	 */
+	public int getMaxDepth () {
+		return maxDepth;
+	}
+
+	/**
+	 * @return Wall time of the search, in nanoseconds
+	 */
+	public long getElapsedNanos () {
+		return elapsedNanos;
+	}
+
+	/**
+	 * Create a String representation of these statistics.
+	 *
+	 * @return every counter and the wall time in milliseconds
+	 */
+	@Override
+	public String toString () {
+		return "nodes expanded: " + nodesExpanded
+				+ ", invalid successors: " + invalidSuccessors
+				+ ", backtracks: " + backtracks
+				+ ", max depth: " + maxDepth
+				+ ", time: " + ( elapsedNanos / 1_000_000.0 ) + " ms";
+	}
+}
@@ -0,0 +1,146 @@
+package sudoku.batch;
+
+import sudoku.puzzle.PuzzleFormat;
+import sudoku.puzzle.PuzzleReader;
+import sudoku.puzzle.SudokuBoard;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+/**
+ * The pipeline shared by the batch tools: puzzles are streamed from a {@link PuzzleReader} to a pool of worker
+ * threads, and each result is written in the same order as its puzzle, as soon as it and every earlier one are done.
+ * Reading, working and writing overlap, and only a bounded number of puzzles are held in memory at once. Also opens
+ * the files the command line tools read and write.
+ */
+public final class BatchPipeline {
+	/** Number of puzzles each worker thread may have queued before the reader waits for the writer */
+	private static final int PUZZLES_PER_THREAD = 64;
+
+	/**
+	 * Writes the result of one puzzle.
+	 *
+	 * @param <T> the result of a puzzle
+	 */
+	interface ResultWriter<T> {
+		/**
+		 * Write the result of one puzzle.
+		 *
+		 * @param result the result of the puzzle
+		 * @param format the format the puzzle was read in
+		 * @param output where the result is written
+		 * @return true if the result counts as solved
+		 * @throws IOException if the output cannot be written
+		 */
+		boolean write (T result, PuzzleFormat format, Writer output) throws IOException;
+	}
+
+	private BatchPipeline () {
+	}
+
+	/**
+	 * Work on every puzzle read from the given input across a pool of worker threads, writing one result per puzzle
+	 * to the given output in input order.
+	 *
+	 * @param input   the puzzles to work on
+	 * @param output  where results are written
+	 * @param threads the number of worker threads
+	 * @param work    computes the result of a puzzle read in the given format, on a worker thread
+	 * @param writer  writes each result, on the calling thread
+	 * @param <T>     the result of a puzzle
+	 * @return the number of puzzles read and the number of results counted as solved
+	 * @throws IOException if the output cannot be written
+	 */
+	static <T> BatchResult run (PuzzleReader input, Writer output, int threads,
+	                            BiFunction<SudokuBoard, PuzzleFormat, T> work, ResultWriter<T> writer) throws IOException {
+		long startTime = System.nanoTime();
+		long puzzles = 0;
+		long solved = 0;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			// results are written in the order puzzles were submitted, as soon as the oldest one is done, each with
+			// the format of its own puzzle, since the input may mix formats
+			Deque<Map.Entry<Future<T>, PuzzleFormat>> inFlight = new ArrayDeque<>();
+			SudokuBoard puzzle;
+			while (( puzzle = input.next() ) != null) {
+				SudokuBoard current = puzzle;
+				PuzzleFormat format = input.getLastFormat();
+				inFlight.add(Map.entry(pool.submit(() -> work.apply(current, format)), format));
+				++puzzles;
+				if (inFlight.size() >= threads * PUZZLES_PER_THREAD) {
+					solved += write(inFlight.remove(), writer, output);
+				}
+			}
+			while (!inFlight.isEmpty()) {
+				solved += write(inFlight.remove(), writer, output);
+			}
+			output.flush();
+		} finally {
+			pool.shutdownNow();
+		}
+		return new BatchResult(puzzles, solved, System.nanoTime() - startTime);
+	}
+
+	/**
+	 * Wait for a result and write it.
+	 *
+	 * @param result the result being computed, and the format of its puzzle
+	 * @param writer writes the result
+	 * @param output where the result is written
+	 * @param <T>    the result of a puzzle
+	 * @return 1 if the result counts as solved, otherwise 0
+	 * @throws IOException if the output cannot be written
+	 */
+	private static <T> int write (Map.Entry<Future<T>, PuzzleFormat> result, ResultWriter<T> writer, Writer output)
+			throws IOException {
+		T value;
+		try {
+			value = result.getKey().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+		return writer.write(value, result.getValue(), output) ? 1 : 0;
+	}
+
+	/**
+	 * @param inputFile a file name, or "-" for the standard input
+	 * @return a reader of the file
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static BufferedReader openInput (String inputFile) throws IOException {
+		if (inputFile.equals("-")) {
+			return new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII));
+		}
+		return Files.newBufferedReader(Path.of(inputFile), StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * @param outputFile a file name, or null for the standard output
+	 * @return a writer to the file
+	 * @throws IOException if the file cannot be created
+	 */
+	public static Writer openOutput (String outputFile) throws IOException {
+		if (outputFile == null) {
+			return new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII));
+		}
+		return Files.newBufferedWriter(Path.of(outputFile), StandardCharsets.US_ASCII);
+	}
+}
@@ -0,0 +1,111 @@
+package sudoku.batch;
+
+import sudoku.logic.DifficultyRater;
+import sudoku.logic.DifficultyRating;
+import sudoku.puzzle.PuzzleFormat;
+import sudoku.puzzle.PuzzleReader;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Headless entry point that streams puzzles from a file, grades them with a {@link DifficultyRater} across a pool of
+ * worker threads, and writes one rating per line in the same order as the puzzles, as the score followed by the
+ * hardest technique needed, such as {@code 412,HIDDEN_PAIR}. A puzzle that needs guessing is written with
+ * {@code GUESSING} as its technique.
+ * <p>
+ * Usage: {@code BatchRater [--threads N] <input|-> [output]}
+ * </p>
+ */
+public class BatchRater {
+	/** The number of worker threads */
+	private final int threads;
+	/** Grades every puzzle */
+	private final DifficultyRater rater;
+
+	/**
+	 * Create a new BatchRater.
+	 *
+	 * @param threads the number of worker threads
+	 */
+	public BatchRater (int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one thread is needed, not " + threads);
+		}
+		this.threads = threads;
+		this.rater = new DifficultyRater();
+	}
+
+	/**
+	 * Rate every puzzle read from the given input, writing one rating per puzzle to the given output in input order.
+	 *
+	 * @param input  the puzzles to rate
+	 * @param output where ratings are written
+	 * @return the number of puzzles read, and the number solved without guessing
+	 * @throws IOException if the output cannot be written
+	 */
+	public BatchResult run (PuzzleReader input, Writer output) throws IOException {
+		return BatchPipeline.run(input, output, threads, (puzzle, format) -> rater.rate(puzzle), BatchRater::write);
+	}
+
+	/**
+	 * Write a rating.
+	 *
+	 * @param rating the rating
+	 * @param format the format of its puzzle
+	 * @param output where the rating is written
+	 * @return true if the puzzle was solved without guessing
+	 * @throws IOException if the output cannot be written
+	 */
+	private static boolean write (DifficultyRating rating, PuzzleFormat format, Writer output) throws IOException {
+		output.write(rating.toString());
+		output.write(System.lineSeparator());
+		return !rating.isGuessingNeeded();
+	}
+
+	/**
+	 * Rate every puzzle in a file, writing the ratings to another file or the standard output, then report the
+	 * number of puzzles rated per second on the standard error.
+	 *
+	 * @param args command line arguments, see the class description
+	 */
+	public static void main (String[] args) {
+		int threads = Runtime.getRuntime().availableProcessors();
+		String inputFile = null;
+		String outputFile = null;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				if (args[i].equals("--threads")) {
+					threads = Integer.parseInt(args[++i]);
+				} else if (args[i].startsWith("--")) {
+					throw new IllegalArgumentException("Unknown option " + args[i]);
+				} else if (inputFile == null) {
+					inputFile = args[i];
+				} else if (outputFile == null) {
+					outputFile = args[i];
+				} else {
+					throw new IllegalArgumentException("Unexpected argument " + args[i]);
+				}
+			}
+			if (inputFile == null) {
+				throw new IllegalArgumentException("No input file given");
+			}
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			System.err.println(( e instanceof ArrayIndexOutOfBoundsException ) ? "Missing option value" : e.getMessage());
+			System.err.println("Usage: BatchRater [--threads N] <input|-> [output]");
+			System.exit(2);
+			return;
+		}
+
+		try (PuzzleReader input = new PuzzleReader(BatchPipeline.openInput(inputFile));
+		     Writer output = BatchPipeline.openOutput(outputFile)) {
+			BatchResult result = new BatchRater(threads).run(input, output);
+			System.err.printf("Rated %d puzzles in %.3f s (%.1f puzzles/s) using %d threads, %d without guessing%n",
+					result.getPuzzles(), result.getElapsedNanos() / 1e9, result.getPuzzlesPerSecond(), threads,
+					result.getSolved());
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Batch rating failed: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package sudoku.batch;
+
+/** The outcome of a {@link BatchSolver} run: how many puzzles were read and solved, and how long it took. */
+public class BatchResult {
+	/** The number of puzzles read */
+	private final long puzzles;
+	/** The number of puzzles with a solution */
+	private final long solved;
+	/** Wall time of the run, in nanoseconds */
+	private final long elapsedNanos;
+
+	/**
+	 * Create a new BatchResult.
+	 *
+	 * @param puzzles      the number of puzzles read
+	 * @param solved       the number of puzzles with a solution
+	 * @param elapsedNanos wall time of the run, in nanoseconds
+	 */
+	public BatchResult (long puzzles, long solved, long elapsedNanos) {
+		this.puzzles = puzzles;
+		this.solved = solved;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * @return the number of puzzles read
+	 */
+	public long getPuzzles () {
+		return puzzles;
+	}
+
+	/**
+	 * @return the number of puzzles with a solution
+	 */
+	public long getSolved () {
+		return solved;
+	}
+
+	/**
+	 * @return wall time of the run, in nanoseconds
+	 */
+	public long getElapsedNanos () {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @return the number of puzzles read per second of wall time
+	 */
+	public double getPuzzlesPerSecond () {
+		return ( elapsedNanos == 0 ) ? 0 : puzzles * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * Create a String representation of this result.
+	 *
+	 * @return the puzzle counts, wall time and throughput
+	 */
+	@Override
+	public String toString () {
+		return String.format("Solved %d of %d puzzles in %.3f s (%.1f puzzles/s)",
+				solved, puzzles, elapsedNanos / 1e9, getPuzzlesPerSecond());
+	}
+}
@@ -0,0 +1,215 @@
+package sudoku.batch;
+
+import sudoku.backtracking.Backtracker;
+import sudoku.dancinglinks.DancingLinks;
+import sudoku.logic.ConstraintPropagator;
+import sudoku.logic.PropagationResult;
+import sudoku.puzzle.CompactSudokuBoard;
+import sudoku.puzzle.PuzzleFormat;
+import sudoku.puzzle.PuzzleReader;
+import sudoku.puzzle.SearchHeuristic;
+import sudoku.puzzle.SolutionCache;
+import sudoku.puzzle.SudokuBoard;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Optional;
+
+/**
+ * Headless entry point that streams puzzles from a file, solves them across a pool of worker threads, and writes
+ * each solution in the same format and the same order as its puzzle. Reading, solving and writing overlap, and only
+ * a bounded number of puzzles are held in memory at once, so files of millions of puzzles can be processed.
+ * <p>
+ * With {@code --cache N}, the solutions of the last N distinct puzzles are kept in a {@link SolutionCache}, so
+ * puzzles that are relabelled, transposed or permuted copies of recent ones are not solved again. Canonicalizing a
+ * puzzle costs more than solving it with Dancing Links, so the option is ignored with the dlx solver, and only pays
+ * off for backtracking on puzzles that take it several milliseconds.
+ * </p>
+ * <p>
+ * Usage: {@code BatchSolver [--threads N] [--solver dlx|backtracking] [--cache N] <input|-> [output]}
+ * </p>
+ */
+public class BatchSolver {
+	/** Written in place of a solution for a puzzle that has none */
+	public static final String NO_SOLUTION = "no solution";
+
+	/** The solvers a BatchSolver can use */
+	public enum Solver {
+		/** Knuth's Algorithm X with Dancing Links */
+		DLX,
+		/** Constraint propagation, then backtracking on a CompactSudokuBoard with minimum remaining values */
+		BACKTRACKING
+	}
+
+	/** The number of worker threads */
+	private final int threads;
+	/** The solver used for every puzzle */
+	private final Solver solver;
+	/** Solves every puzzle with the Dancing Links solver */
+	private final DancingLinks dancingLinks;
+	/** Fills in what logic can before backtracking */
+	private final ConstraintPropagator propagator;
+	/** Searches the cells propagation leaves empty, collecting no statistics */
+	private final Backtracker backtracker;
+	/** Solutions of recent puzzles shared by every worker, or null if not caching */
+	private final SolutionCache cache;
+
+	/**
+	 * Create a new BatchSolver.
+	 *
+	 * @param threads the number of worker threads
+	 * @param solver  the solver to use for every puzzle
+	 */
+	public BatchSolver (int threads, Solver solver) {
+		this(threads, solver, 0);
+	}
+
+	/**
+	 * Create a new BatchSolver that caches the solutions of recent puzzles.
+	 *
+	 * @param threads       the number of worker threads
+	 * @param solver        the solver to use for every puzzle
+	 * @param cacheCapacity the most solutions cached, or 0 not to cache
+	 */
+	public BatchSolver (int threads, Solver solver, int cacheCapacity) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one thread is needed, not " + threads);
+		}
+		this.threads = threads;
+		this.solver = solver;
+		this.dancingLinks = new DancingLinks();
+		this.propagator = new ConstraintPropagator();
+		this.backtracker = new Backtracker(false);
+		this.cache = ( cacheCapacity > 0 ) ? new SolutionCache(cacheCapacity, this::solveUncached) : null;
+	}
+
+	/**
+	 * Solve every puzzle read from the given input, writing one solution per puzzle to the given output in input
+	 * order. A puzzle with no solution is written as {@link BatchSolver#NO_SOLUTION}, and a CSV solution is followed
+	 * by a blank line to separate it from the next one.
+	 *
+	 * @param input  the puzzles to solve
+	 * @param output where solutions are written
+	 * @return the number of puzzles read and the number solved
+	 * @throws IOException if the output cannot be written
+	 */
+	public BatchResult run (PuzzleReader input, Writer output) throws IOException {
+		return BatchPipeline.run(input, output, threads,
+				(puzzle, format) -> solve(puzzle).map(format::format).orElse(NO_SOLUTION), BatchSolver::write);
+	}
+
+	/**
+	 * Write a solution.
+	 *
+	 * @param solution the solution, or {@link BatchSolver#NO_SOLUTION}
+	 * @param format   the format of its puzzle
+	 * @param output   where the solution is written
+	 * @return true if the puzzle was solved
+	 * @throws IOException if the output cannot be written
+	 */
+	private static boolean write (String solution, PuzzleFormat format, Writer output) throws IOException {
+		output.write(solution);
+		output.write(System.lineSeparator());
+		if (format == PuzzleFormat.CSV) {
+			output.write(System.lineSeparator());
+		}
+		return !NO_SOLUTION.equals(solution);
+	}
+
+	/**
+	 * Solve one puzzle, from the cache if one is used.
+	 *
+	 * @param puzzle the puzzle to solve
+	 * @return the solution, or empty if the puzzle has none
+	 */
+	private Optional<SudokuBoard> solve (SudokuBoard puzzle) {
+		return ( cache == null ) ? solveUncached(puzzle) : cache.solve(puzzle);
+	}
+
+	/**
+	 * @return the cache of recent solutions, or empty if not caching
+	 */
+	public Optional<SolutionCache> getCache () {
+		return Optional.ofNullable(cache);
+	}
+
+	/**
+	 * Solve one puzzle with this BatchSolver's solver.
+	 *
+	 * @param puzzle the puzzle to solve
+	 * @return the solution, or empty if the puzzle has none
+	 */
+	private Optional<SudokuBoard> solveUncached (SudokuBoard puzzle) {
+		if (solver == Solver.DLX) {
+			return dancingLinks.solve(puzzle);
+		}
+		PropagationResult propagated = propagator.propagate(puzzle);
+		if (propagated.isContradiction()) {
+			return Optional.empty();
+		}
+		SudokuBoard board = propagated.getSudokuBoard();
+		if (propagated.isSolved()) {
+			return Optional.of(board);
+		}
+		board.setSearchHeuristic(SearchHeuristic.MINIMUM_REMAINING_VALUES);
+		CompactSudokuBoard compactBoard = new CompactSudokuBoard(board);
+		return backtracker.solveInPlace(compactBoard) ? Optional.of(compactBoard.toSudokuBoard()) : Optional.empty();
+	}
+
+	/**
+	 * Solve every puzzle in a file, writing the solutions to another file or the standard output, then report the
+	 * number of puzzles solved per second on the standard error.
+	 *
+	 * @param args command line arguments, see the class description
+	 */
+	public static void main (String[] args) {
+		int threads = Runtime.getRuntime().availableProcessors();
+		Solver solver = Solver.DLX;
+		int cacheCapacity = 0;
+		String inputFile = null;
+		String outputFile = null;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+					case "--threads" -> threads = Integer.parseInt(args[++i]);
+					case "--solver" -> solver = Solver.valueOf(args[++i].toUpperCase());
+					case "--cache" -> cacheCapacity = Integer.parseInt(args[++i]);
+					default -> {
+						if (args[i].startsWith("--")) {
+							throw new IllegalArgumentException("Unknown option " + args[i]);
+						} else if (inputFile == null) {
+							inputFile = args[i];
+						} else if (outputFile == null) {
+							outputFile = args[i];
+						} else {
+							throw new IllegalArgumentException("Unexpected argument " + args[i]);
+						}
+					}
+				}
+			}
+			if (inputFile == null) {
+				throw new IllegalArgumentException("No input file given");
+			}
+			if (cacheCapacity > 0 && solver == Solver.DLX) {
+				System.err.println("Ignoring --cache, since the dlx solver is faster than looking a puzzle up");
+				cacheCapacity = 0;
+			}
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			System.err.println(( e instanceof ArrayIndexOutOfBoundsException ) ? "Missing option value" : e.getMessage());
+			System.err.println("Usage: BatchSolver [--threads N] [--solver dlx|backtracking] [--cache N] <input|-> [output]");
+			System.exit(2);
+			return;
+		}
+
+		try (PuzzleReader input = new PuzzleReader(BatchPipeline.openInput(inputFile));
+		     Writer output = BatchPipeline.openOutput(outputFile)) {
+			BatchSolver batchSolver = new BatchSolver(threads, solver, cacheCapacity);
+			BatchResult result = batchSolver.run(input, output);
+			System.err.println(result + " using " + threads + " threads");
+			batchSolver.getCache().ifPresent(System.err::println);
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Batch solve failed: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package sudoku.batch;
+
+import sudoku.puzzle.BinaryPuzzleReader;
+import sudoku.puzzle.BinaryPuzzleWriter;
+import sudoku.puzzle.CompactSudokuBoard;
+import sudoku.puzzle.PuzzleFormat;
+import sudoku.puzzle.PuzzleReader;
+import sudoku.puzzle.SearchHeuristic;
+import sudoku.puzzle.SudokuBoard;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+
+/**
+ * Headless entry point that converts puzzle files between the text formats read by {@link PuzzleReader} and the
+ * packed binary format of {@link BinaryPuzzleWriter}. Every puzzle in a binary file must be of the same size.
+ * <p>
+ * Usage: {@code PuzzleConverter <input|-> <output>} to convert CSV or line puzzles to binary, or
+ * {@code PuzzleConverter --to-text <input> [output]} to convert a binary file back to text.
+ * </p>
+ */
+public class PuzzleConverter {
+	private PuzzleConverter () {
+	}
+
+	/**
+	 * Convert every puzzle read from text to a binary file.
+	 *
+	 * @param input      puzzles to convert
+	 * @param outputFile binary file to create
+	 * @return the number of puzzles converted
+	 * @throws IOException              if a file cannot be read or written
+	 * @throws IllegalArgumentException if a puzzle is malformed, or not the same size as the first
+	 */
+	public static long toBinary (PuzzleReader input, Path outputFile) throws IOException {
+		SudokuBoard sudokuBoard = input.next();
+		int size = ( sudokuBoard == null ) ? SudokuBoard.DEFAULT_SIZE : sudokuBoard.getSize();
+		try (BinaryPuzzleWriter output = new BinaryPuzzleWriter(outputFile, size)) {
+			for (; sudokuBoard != null; sudokuBoard = input.next()) {
+				output.write(sudokuBoard);
+			}
+			return output.getCount();
+		}
+	}
+
+	/**
+	 * Convert every puzzle in a binary file to text: the {@link PuzzleFormat#LINE} format for boards up to 9x9,
+	 * otherwise the {@link PuzzleFormat#CSV} format with a blank line after each puzzle.
+	 *
+	 * @param input  binary puzzles to convert
+	 * @param output where the puzzles are written
+	 * @return the number of puzzles converted
+	 * @throws IOException if a file cannot be read or written
+	 */
+	public static long toText (BinaryPuzzleReader input, Writer output) throws IOException {
+		PuzzleFormat format = ( input.getBoardSize() <= 9 ) ? PuzzleFormat.LINE : PuzzleFormat.CSV;
+		for (CompactSudokuBoard board = input.next(); board != null; board = input.next()) {
+			output.write(format.format(board.toSudokuBoard()));
+			output.write(System.lineSeparator());
+			if (format == PuzzleFormat.CSV) {
+				output.write(System.lineSeparator());
+			}
+		}
+		return input.size();
+	}
+
+	/**
+	 * Convert a puzzle file, then report the number of puzzles converted on the standard error.
+	 *
+	 * @param args command line arguments, see the class description
+	 */
+	public static void main (String[] args) {
+		boolean toText = args.length > 0 && args[0].equals("--to-text");
+		int first = toText ? 1 : 0;
+		int files = args.length - first;
+		if (files < 1 || files > 2 || ( !toText && files != 2 ) || args[first].startsWith("--")) {
+			System.err.println("Usage: PuzzleConverter <input|-> <output>");
+			System.err.println("       PuzzleConverter --to-text <input> [output]");
+			System.exit(2);
+			return;
+		}
+
+		long startTime = System.nanoTime();
+		long puzzles;
+		try {
+			if (toText) {
+				try (BinaryPuzzleReader input = new BinaryPuzzleReader(Path.of(args[first]),
+						SearchHeuristic.FIRST_EMPTY_CELL);
+				     Writer output = BatchPipeline.openOutput(( files == 2 ) ? args[first + 1] : null)) {
+					puzzles = toText(input, output);
+				}
+			} else {
+				try (PuzzleReader input = new PuzzleReader(BatchPipeline.openInput(args[first]))) {
+					puzzles = toBinary(input, Path.of(args[first + 1]));
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Conversion failed: " + e.getMessage());
+			System.exit(1);
+			return;
+		}
+		double seconds = ( System.nanoTime() - startTime ) / 1e9;
+		System.err.printf("%d puzzles converted in %.3f s%n", puzzles, seconds);
+	}
+}
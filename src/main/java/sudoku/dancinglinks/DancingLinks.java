@@ -0,0 +1,342 @@
+package sudoku.dancinglinks;
+
+import sudoku.puzzle.SudokuBoard;
+
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A Sudoku solver that models an NxN puzzle as an exact cover problem and solves it with
+ * Knuth's Algorithm X, using Dancing Links to cover and uncover columns of the matrix.
+ * <p>
+ * The matrix has one row for every candidate (row, column, number) and 4 * N * N columns, one for each
+ * constraint: every cell has a number, and every row, column and region has each number exactly once.
+ * </p>
+ */
+public class DancingLinks {
+	/** Create a new Dancing Links solver. */
+	public DancingLinks () {
+	}
+
+	/**
+	 * Find a solution, if one exists, for the given SudokuBoard. Every number in the board is treated
+	 * as fixed. The given SudokuBoard is not changed.
+	 *
+	 * @param sudokuBoard SudokuBoard to solve
+	 * @return a solved SudokuBoard with the same given numbers, or empty if there is no solution
+	 */
+	public Optional<SudokuBoard> solve (SudokuBoard sudokuBoard) {
+		return solve(sudokuBoard, () -> false);
+	}
+
+	/**
+	 * Find a solution, if one exists, for the given SudokuBoard, giving up as soon as the given condition becomes
+	 * true. Every number in the board is treated as fixed. The given SudokuBoard is not changed.
+	 *
+	 * @param sudokuBoard SudokuBoard to solve
+	 * @param stopped     checked at every node; the search stops once it is true
+	 * @return a solved SudokuBoard with the same given numbers, or empty if there is no solution or the search was
+	 * stopped first
+	 */
+	public Optional<SudokuBoard> solve (SudokuBoard sudokuBoard, BooleanSupplier stopped) {
+		Matrix matrix = new Matrix(numbersOf(sudokuBoard), sudokuBoard.getBoxSize());
+		if (matrix.search(1, stopped) == 0) {
+			return Optional.empty();
+		}
+		int size = sudokuBoard.getSize();
+		boolean[][] givenNumbers = new boolean[size][size];
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				givenNumbers[row][col] = sudokuBoard.getSudokuCell(row, col).isGivenNumber();
+			}
+		}
+		SudokuBoard solution = new SudokuBoard(matrix.firstSolution, givenNumbers);
+		solution.setSearchHeuristic(sudokuBoard.getSearchHeuristic());
+		return Optional.of(solution);
+	}
+
+	/**
+	 * Count the solutions of the given SudokuBoard, stopping once limit solutions have been found.
+	 * A limit of 2 is enough to tell whether a puzzle has a unique solution.
+	 *
+	 * @param sudokuBoard SudokuBoard to count the solutions of
+	 * @param limit       the most solutions to count
+	 * @return the number of solutions, at most limit
+	 */
+	public long countSolutions (SudokuBoard sudokuBoard, long limit) {
+		return new Matrix(numbersOf(sudokuBoard), sudokuBoard.getBoxSize()).search(limit, () -> false);
+	}
+
+	/**
+	 * Count the solutions of a puzzle given as a grid of numbers, stopping once limit solutions have been found.
+	 * This avoids building a SudokuBoard for callers that check many puzzles, such as a generator.
+	 *
+	 * @param numbers NxN grid of numbers, where 0 is an empty cell, which is not changed
+	 * @param limit   the most solutions to count
+	 * @return the number of solutions, at most limit
+	 * @throws IllegalArgumentException if the grid is not a valid board size
+	 */
+	public long countSolutions (int[][] numbers, long limit) {
+		return new Matrix(numbers, SudokuBoard.boxSizeOf(numbers.length)).search(limit, () -> false);
+	}
+
+	/**
+	 * @param sudokuBoard a SudokuBoard
+	 * @return the number in every cell of the board, where 0 is an empty cell
+	 */
+	private static int[][] numbersOf (SudokuBoard sudokuBoard) {
+		int size = sudokuBoard.getSize();
+		int[][] numbers = new int[size][size];
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				numbers[row][col] = sudokuBoard.getSudokuCell(row, col).getNumber();
+			}
+		}
+		return numbers;
+	}
+
+	/** The exact cover matrix for one puzzle, stored as parallel arrays of node links. */
+	private static class Matrix {
+		/** Index of the root header node */
+		private static final int ROOT = 0;
+
+		/** Number of rows, columns and numbers in the puzzle */
+		private final int n;
+		/** Number of constraint columns: cell, row-number, column-number and region-number */
+		private final int columns;
+		/** Index of the first candidate node, after the root and column headers */
+		private final int firstNode;
+
+		/** Left link of each node */
+		private final int[] left;
+		/** Right link of each node */
+		private final int[] right;
+		/** Up link of each node */
+		private final int[] up;
+		/** Down link of each node */
+		private final int[] down;
+		/** Column header of each node */
+		private final int[] column;
+		/** Number of nodes left in each column, indexed by header node */
+		private final int[] size;
+
+		/** Candidate nodes chosen on the current search path */
+		private final int[] path;
+		/** Number of cells filled on the current search path, after the given numbers */
+		private int depth;
+		/** Numbers of the first solution found */
+		private final int[][] firstSolution;
+		/** Is the matrix unsolvable because the given numbers already repeat? */
+		private boolean contradiction;
+		/** Number of solutions found so far */
+		private long solutions;
+		/** Condition that stops the search once true */
+		private BooleanSupplier stopped;
+
+		/**
+		 * Build the full matrix, then select the rows of every number already in the given puzzle.
+		 *
+		 * @param numbers NxN grid of numbers of the puzzle, where 0 is an empty cell
+		 * @param boxSize number of rows and columns in each region
+		 */
+		private Matrix (int[][] numbers, int boxSize) {
+			this.n = numbers.length;
+			this.columns = 4 * n * n;
+			this.firstNode = columns + 1;
+			// one candidate row for each cell and number
+			int nodes = firstNode + n * n * n * 4;
+			this.left = new int[nodes];
+			this.right = new int[nodes];
+			this.up = new int[nodes];
+			this.down = new int[nodes];
+			this.column = new int[nodes];
+			this.size = new int[columns + 1];
+			this.path = new int[n * n];
+			this.firstSolution = new int[n][n];
+
+			// circular list of column headers
+			for (int header = 0; header <= columns; header++) {
+				left[header] = ( header == 0 ) ? columns : header - 1;
+				right[header] = ( header == columns ) ? 0 : header + 1;
+				up[header] = header;
+				down[header] = header;
+				column[header] = header;
+			}
+
+			for (int row = 0; row < n; row++) {
+				for (int col = 0; col < n; col++) {
+					int region = ( row / boxSize ) * boxSize + col / boxSize;
+					for (int num = 0; num < n; num++) {
+						int first = firstNode + ( ( row * n + col ) * n + num ) * 4;
+						appendNode(first, 1 + row * n + col);
+						appendNode(first + 1, 1 + n * n + row * n + num);
+						appendNode(first + 2, 1 + 2 * n * n + col * n + num);
+						appendNode(first + 3, 1 + 3 * n * n + region * n + num);
+						for (int i = 0; i < 4; i++) {
+							left[first + i] = first + ( i + 3 ) % 4;
+							right[first + i] = first + ( i + 1 ) % 4;
+						}
+					}
+				}
+			}
+
+			for (int row = 0; row < n; row++) {
+				for (int col = 0; col < n; col++) {
+					int num = numbers[row][col];
+					if (num < 0 || num > n) {
+						throw new IllegalArgumentException("Number " + num + " out of range at " + row + "," + col);
+					}
+					if (num != 0) {
+						firstSolution[row][col] = num;
+						selectGiven(firstNode + ( ( row * n + col ) * n + num - 1 ) * 4);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Add the given node to the bottom of the given column.
+		 *
+		 * @param node   node index
+		 * @param header column header index
+		 */
+		private void appendNode (int node, int header) {
+			column[node] = header;
+			up[node] = up[header];
+			down[node] = header;
+			down[up[header]] = node;
+			up[header] = node;
+			++size[header];
+		}
+
+		/**
+		 * Select the candidate row of a given number by covering each of its columns. If one of the columns was
+		 * already covered, the given number repeats another and the puzzle has no solution.
+		 *
+		 * @param first first node of the candidate row
+		 */
+		private void selectGiven (int first) {
+			if (contradiction) {
+				return;
+			}
+			for (int i = 0; i < 4; i++) {
+				int header = column[first + i];
+				// a covered header has been unlinked from its neighbors
+				if (right[left[header]] != header) {
+					contradiction = true;
+					return;
+				}
+			}
+			for (int i = 0; i < 4; i++) {
+				cover(column[first + i]);
+			}
+		}
+
+		/**
+		 * Remove the given column from the header list, and remove every row with a node in it from the other
+		 * columns.
+		 *
+		 * @param header column header index
+		 */
+		private void cover (int header) {
+			right[left[header]] = right[header];
+			left[right[header]] = left[header];
+			for (int i = down[header]; i != header; i = down[i]) {
+				for (int j = right[i]; j != i; j = right[j]) {
+					down[up[j]] = down[j];
+					up[down[j]] = up[j];
+					--size[column[j]];
+				}
+			}
+		}
+
+		/**
+		 * Restore the given column and its rows, exactly undoing {@link Matrix#cover(int)}.
+		 *
+		 * @param header column header index
+		 */
+		private void uncover (int header) {
+			for (int i = up[header]; i != header; i = up[i]) {
+				for (int j = left[i]; j != i; j = left[j]) {
+					++size[column[j]];
+					down[up[j]] = j;
+					up[down[j]] = j;
+				}
+			}
+			right[left[header]] = header;
+			left[right[header]] = header;
+		}
+
+		/**
+		 * Search for solutions until limit solutions have been found, the search space is exhausted, or the given
+		 * condition becomes true.
+		 *
+		 * @param limit   the most solutions to find
+		 * @param stopped checked at every node; the search stops once it is true
+		 * @return the number of solutions found
+		 */
+		private long search (long limit, BooleanSupplier stopped) {
+			if (!contradiction) {
+				this.stopped = stopped;
+				solutions = 0;
+				search0(limit);
+			}
+			return solutions;
+		}
+
+		/**
+		 * Recursive step of Algorithm X, always branching on the column with the fewest rows.
+		 *
+		 * @param limit the most solutions to find
+		 * @return true if the search should stop because limit solutions were found or it was stopped
+		 */
+		private boolean search0 (long limit) {
+			if (stopped.getAsBoolean()) {
+				return true;
+			}
+			if (right[ROOT] == ROOT) {
+				if (solutions++ == 0) {
+					recordSolution();
+				}
+				return solutions >= limit;
+			}
+			int best = right[ROOT];
+			for (int header = right[best]; header != ROOT; header = right[header]) {
+				if (size[header] < size[best]) {
+					best = header;
+				}
+			}
+			if (size[best] == 0) {
+				return false;
+			}
+
+			cover(best);
+			for (int node = down[best]; node != best; node = down[node]) {
+				path[depth++] = node;
+				for (int j = right[node]; j != node; j = right[j]) {
+					cover(column[j]);
+				}
+				boolean stop = search0(limit);
+				for (int j = left[node]; j != node; j = left[j]) {
+					uncover(column[j]);
+				}
+				--depth;
+				if (stop) {
+					uncover(best);
+					return true;
+				}
+			}
+			uncover(best);
+			return false;
+		}
+
+		/** Copy the numbers chosen on the current search path into the first solution. */
+		private void recordSolution () {
+			for (int i = 0; i < depth; i++) {
+				int candidate = ( path[i] - firstNode ) / 4;
+				int cell = candidate / n;
+				firstSolution[cell / n][cell % n] = candidate % n + 1;
+			}
+		}
+	}
+}
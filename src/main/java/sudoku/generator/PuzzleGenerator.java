@@ -0,0 +1,334 @@
+package sudoku.generator;
+
+import sudoku.batch.BatchPipeline;
+import sudoku.dancinglinks.DancingLinks;
+import sudoku.logic.ConstraintPropagator;
+import sudoku.logic.DifficultyRater;
+import sudoku.logic.PropagationResult;
+import sudoku.logic.Technique;
+import sudoku.puzzle.PuzzleFormat;
+import sudoku.puzzle.SudokuBoard;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates random Sudoku puzzles with a unique solution. A random full grid is built by filling the regions on
+ * the diagonal, which never share a row or column, with random permutations and completing the grid with Dancing
+ * Links. Clues are then removed in random order, each removal kept only if the puzzle still has exactly one
+ * solution and is no harder than the requested difficulty, until the difficulty's clue count is reached or no more
+ * clues can be removed.
+ * <p>
+ * For the easier difficulties the uniqueness check is constraint propagation alone: logic never guesses, so a
+ * puzzle it fills completely has exactly one solution. Only hard puzzles need Dancing Links to count solutions,
+ * stopping as soon as a second solution is found.
+ * </p>
+ * <p>
+ * Usage: {@code PuzzleGenerator [--threads N] [--difficulty easy|medium|hard] [--size N] <count> [output]}
+ * </p>
+ */
+public class PuzzleGenerator {
+	/** The most full grids tried for one puzzle before the last puzzle generated is returned regardless */
+	private static final int MAX_ATTEMPTS = 100;
+
+	/** How hard a generated puzzle is to solve */
+	public enum Difficulty {
+		/** Solvable with naked and hidden singles alone */
+		EASY(0.45, Technique.HIDDEN_SINGLE),
+		/** Solvable without guessing, with fewer clues and possibly needing pointing or claiming */
+		MEDIUM(0.37, Technique.CLAIMING),
+		/** Not solvable by any technique the DifficultyRater knows, up to Swordfish, so some guessing is needed */
+		HARD(0.30, null);
+
+		/** The fraction of cells that should be left as clues */
+		private final double clueFraction;
+		/** The hardest technique needed to solve the puzzle, or null if guessing is needed */
+		private final Technique hardestTechnique;
+
+		/**
+		 * @param clueFraction     the fraction of cells that should be left as clues
+		 * @param hardestTechnique the hardest technique needed to solve the puzzle, or null if guessing is needed
+		 */
+		Difficulty (double clueFraction, Technique hardestTechnique) {
+			this.clueFraction = clueFraction;
+			this.hardestTechnique = hardestTechnique;
+		}
+
+		/**
+		 * @param size number of rows and columns in the board
+		 * @return the number of clues a puzzle of this difficulty aims for
+		 */
+		public int getTargetClues (int size) {
+			return (int) Math.round(clueFraction * size * size);
+		}
+
+		/**
+		 * @return the hardest technique needed to solve a puzzle of this difficulty, or null if guessing is needed
+		 */
+		public Technique getHardestTechnique () {
+			return hardestTechnique;
+		}
+
+		/**
+		 * @param result the result of propagating a puzzle
+		 * @return true if the puzzle is solved using no technique harder than this difficulty allows
+		 */
+		private boolean isSolvedWithin (PropagationResult result) {
+			if (!result.isSolved()) {
+				return false;
+			}
+			for (Technique technique : result.getTechniquesUsed()) {
+				if (technique.compareTo(hardestTechnique) > 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/** The number of rows and columns of each puzzle */
+	private final int size;
+	/** The number of worker threads used to generate many puzzles */
+	private final int threads;
+	/** Completes full grids and checks that hard puzzles have one solution */
+	private final DancingLinks dancingLinks;
+	/** Checks that easier puzzles are solved by their difficulty's techniques */
+	private final ConstraintPropagator propagator;
+	/** Checks that hard puzzles need guessing */
+	private final DifficultyRater difficultyRater;
+
+	/**
+	 * Create a new PuzzleGenerator of 9x9 puzzles using every available core.
+	 */
+	public PuzzleGenerator () {
+		this(SudokuBoard.DEFAULT_SIZE, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create a new PuzzleGenerator.
+	 *
+	 * @param size    number of rows and columns of each puzzle
+	 * @param threads the number of worker threads used to generate many puzzles
+	 * @throws IllegalArgumentException if size is not a valid board size or threads is less than 1
+	 */
+	public PuzzleGenerator (int size, int threads) {
+		SudokuBoard.boxSizeOf(size);
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one thread is needed, not " + threads);
+		}
+		this.size = size;
+		this.threads = threads;
+		this.dancingLinks = new DancingLinks();
+		this.propagator = new ConstraintPropagator();
+		this.difficultyRater = new DifficultyRater();
+	}
+
+	/**
+	 * Generate one puzzle on the calling thread. Full grids are generated until a puzzle matching the difficulty
+	 * is found, giving up after {@link PuzzleGenerator#MAX_ATTEMPTS} grids, in which case the last puzzle
+	 * generated is returned. Every puzzle returned has a unique solution.
+	 *
+	 * @param difficulty how hard the puzzle should be
+	 * @return a new puzzle, where every number is a given number
+	 */
+	public SudokuBoard generate (Difficulty difficulty) {
+		Random random = ThreadLocalRandom.current();
+		int[][] numbers = null;
+		for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+			numbers = removeClues(fullGrid(random), difficulty, random);
+			// easier difficulties are held to their hardest technique while removing clues, but a hard puzzle is
+			// only known to need guessing once every clue that can go has been removed, and it must need guessing
+			// with every technique the rater knows, not just the ones propagation uses
+			if (difficulty.hardestTechnique != null
+					|| difficultyRater.rate(new SudokuBoard(numbers, null)).isGuessingNeeded()) {
+				break;
+			}
+		}
+		return new SudokuBoard(numbers, null);
+	}
+
+	/**
+	 * Generate many puzzles in parallel across the worker threads.
+	 *
+	 * @param difficulty how hard each puzzle should be
+	 * @param count      the number of puzzles to generate
+	 * @return the new puzzles
+	 */
+	public List<SudokuBoard> generate (Difficulty difficulty, int count) {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<SudokuBoard>> futures = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				futures.add(pool.submit(() -> generate(difficulty)));
+			}
+			List<SudokuBoard> puzzles = new ArrayList<>(count);
+			for (Future<SudokuBoard> future : futures) {
+				puzzles.add(future.get());
+			}
+			return puzzles;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Build a random solved grid.
+	 *
+	 * @param random source of randomness
+	 * @return every number of the grid
+	 */
+	private int[][] fullGrid (Random random) {
+		int boxSize = SudokuBoard.boxSizeOf(size);
+		int[][] numbers = new int[size][size];
+		int[] permutation = new int[size];
+		for (int box = 0; box < boxSize; box++) {
+			for (int i = 0; i < size; i++) {
+				permutation[i] = i + 1;
+			}
+			shuffle(permutation, random);
+			for (int i = 0; i < size; i++) {
+				numbers[box * boxSize + i / boxSize][box * boxSize + i % boxSize] = permutation[i];
+			}
+		}
+		SudokuBoard solution = dancingLinks.solve(new SudokuBoard(numbers, null)).orElseThrow();
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				numbers[row][col] = solution.getSudokuCell(row, col).getNumber();
+			}
+		}
+		return numbers;
+	}
+
+	/**
+	 * Remove clues from a grid in random order, keeping each removal only if the puzzle still has exactly one
+	 * solution within the given difficulty, until the difficulty's clue count is reached.
+	 *
+	 * @param numbers    the grid, changed in place
+	 * @param difficulty how hard the puzzle may become
+	 * @param random     source of randomness
+	 * @return the grid
+	 */
+	private int[][] removeClues (int[][] numbers, Difficulty difficulty, Random random) {
+		int[] order = new int[size * size];
+		for (int cell = 0; cell < order.length; cell++) {
+			order[cell] = cell;
+		}
+		shuffle(order, random);
+		int clues = order.length;
+		int targetClues = difficulty.getTargetClues(size);
+		for (int i = 0; i < order.length && clues > targetClues; i++) {
+			int row = order[i] / size;
+			int col = order[i] % size;
+			int num = numbers[row][col];
+			numbers[row][col] = 0;
+			if (isUnique(numbers, difficulty)) {
+				--clues;
+			} else {
+				numbers[row][col] = num;
+			}
+		}
+		return numbers;
+	}
+
+	/**
+	 * @param numbers    a puzzle
+	 * @param difficulty how hard the puzzle may be
+	 * @return true if the puzzle has exactly one solution and is no harder than the difficulty
+	 */
+	private boolean isUnique (int[][] numbers, Difficulty difficulty) {
+		if (difficulty.hardestTechnique == null) {
+			return dancingLinks.countSolutions(numbers, 2) == 1;
+		}
+		return difficulty.isSolvedWithin(propagator.propagate(new SudokuBoard(numbers, null)));
+	}
+
+	/**
+	 * Shuffle an array in place with the Fisher-Yates algorithm.
+	 *
+	 * @param values array to shuffle
+	 * @param random source of randomness
+	 */
+	private static void shuffle (int[] values, Random random) {
+		for (int i = values.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int swap = values[i];
+			values[i] = values[j];
+			values[j] = swap;
+		}
+	}
+
+	/**
+	 * Generate puzzles, writing them to a file or the standard output, then report the number of puzzles generated
+	 * per second on the standard error.
+	 *
+	 * @param args command line arguments, see the class description
+	 */
+	public static void main (String[] args) {
+		int threads = Runtime.getRuntime().availableProcessors();
+		Difficulty difficulty = Difficulty.MEDIUM;
+		int size = SudokuBoard.DEFAULT_SIZE;
+		int count = -1;
+		String outputFile = null;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+					case "--threads" -> threads = Integer.parseInt(args[++i]);
+					case "--difficulty" -> difficulty = Difficulty.valueOf(args[++i].toUpperCase());
+					case "--size" -> size = Integer.parseInt(args[++i]);
+					default -> {
+						if (args[i].startsWith("--")) {
+							throw new IllegalArgumentException("Unknown option " + args[i]);
+						} else if (count < 0) {
+							count = Integer.parseInt(args[i]);
+						} else if (outputFile == null) {
+							outputFile = args[i];
+						} else {
+							throw new IllegalArgumentException("Unexpected argument " + args[i]);
+						}
+					}
+				}
+			}
+			if (count < 0) {
+				throw new IllegalArgumentException("No puzzle count given");
+			}
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			System.err.println(( e instanceof ArrayIndexOutOfBoundsException ) ? "Missing option value" : e.getMessage());
+			System.err.println("Usage: PuzzleGenerator [--threads N] [--difficulty easy|medium|hard] [--size N] "
+					+ "<count> [output]");
+			System.exit(2);
+			return;
+		}
+
+		long startTime = System.nanoTime();
+		PuzzleFormat format = ( size <= 9 ) ? PuzzleFormat.LINE : PuzzleFormat.CSV;
+		try (Writer output = BatchPipeline.openOutput(outputFile)) {
+			for (SudokuBoard puzzle : new PuzzleGenerator(size, threads).generate(difficulty, count)) {
+				output.write(format.format(puzzle));
+				output.write(System.lineSeparator());
+				if (format == PuzzleFormat.CSV) {
+					output.write(System.lineSeparator());
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Generation failed: " + e.getMessage());
+			System.exit(1);
+			return;
+		}
+		double seconds = ( System.nanoTime() - startTime ) / 1e9;
+		System.err.printf("Generated %d %s puzzles in %.3f s (%.1f puzzles/s) using %d threads%n", count,
+				difficulty.name().toLowerCase(), seconds, count / seconds, threads);
+	}
+}
@@ -0,0 +1,70 @@
+package sudoku.gui;
+
+/**
+ * One action taken by the user on a GUIBoard, recorded as the number and annotations of every cell it changed,
+ * before and after, so it can be undone and redone on the live board. Annotations are stored as masks where bit
+ * n - 1 is set if the number n is annotated.
+ */
+public class BoardEdit {
+	/** The cells changed, as indices in row-major order */
+	private final int[] cells;
+	/** The number of each changed cell before the action, or 0 if empty */
+	private final int[] numbersBefore;
+	/** The number of each changed cell after the action, or 0 if empty */
+	private final int[] numbersAfter;
+	/** The annotations of each changed cell before the action */
+	private final long[] annotationsBefore;
+	/** The annotations of each changed cell after the action */
+	private final long[] annotationsAfter;
+
+	/**
+	 * Create a new BoardEdit instance. The arrays are kept, not copied.
+	 *
+	 * @param cells             the cells changed, as indices in row-major order
+	 * @param numbersBefore     the number of each changed cell before the action
+	 * @param numbersAfter      the number of each changed cell after the action
+	 * @param annotationsBefore the annotations of each changed cell before the action
+	 * @param annotationsAfter  the annotations of each changed cell after the action
+	 */
+	BoardEdit (int[] cells, int[] numbersBefore, int[] numbersAfter, long[] annotationsBefore,
+	           long[] annotationsAfter) {
+		this.cells = cells;
+		this.numbersBefore = numbersBefore;
+		this.numbersAfter = numbersAfter;
+		this.annotationsBefore = annotationsBefore;
+		this.annotationsAfter = annotationsAfter;
+	}
+
+	/**
+	 * @return the number of cells changed
+	 */
+	int getCellCount () {
+		return cells.length;
+	}
+
+	/**
+	 * @param i index of a changed cell in this edit
+	 * @return the cell, as an index in row-major order
+	 */
+	int getCell (int i) {
+		return cells[i];
+	}
+
+	/**
+	 * @param i     index of a changed cell in this edit
+	 * @param after the state after the action, instead of before it?
+	 * @return the number of the cell, or 0 if empty
+	 */
+	int getNumber (int i, boolean after) {
+		return after ? numbersAfter[i] : numbersBefore[i];
+	}
+
+	/**
+	 * @param i     index of a changed cell in this edit
+	 * @param after the state after the action, instead of before it?
+	 * @return the annotations of the cell
+	 */
+	long getAnnotations (int i, boolean after) {
+		return after ? annotationsAfter[i] : annotationsBefore[i];
+	}
+}
@@ -4,41 +4,39 @@ import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
 import javafx.scene.layout.GridPane;
 import sudoku.ContainerController;
+import sudoku.generator.PuzzleGenerator;
+import sudoku.logic.HintEngine;
 import sudoku.puzzle.SudokuBoard;
+import sudoku.puzzle.SudokuCell;
+import sudoku.puzzle.UnitTables;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Class to represent a SudokuBoard graphically using GUICells.
  * Organizes and displays each GUICell for the user to interact with.
  */
 public class GUIBoard {
-	/** The number of GUICells rows in this grid */
-	public static final int rows = 9;
-	/** The number of GUICells columns in this grid */
-	public static final int cols = 9;
+	/** Width of the margin separating the regions of the board */
+	private static final double REGION_MARGIN = 4;
 
 	/** Sample Sudoku puzzle launched on application start */
 	private static final String SAMPLE_PUZZLE = "input/sample_puzzle.csv";
-	/** Easy Sudoku puzzle that can be launched directly from GUI */
-	private static final String EASY_PUZZLE = "input/easy_puzzle.csv";
-	/** Medium Sudoku puzzle that can be launched directly from GUI */
-	private static final String MEDIUM_PUZZLE = "input/medium_puzzle.csv";
-	/** Hard Sudoku puzzle that can be launched directly from GUI */
-	private static final String HARD_PUZZLE = "input/hard_puzzle.csv";
+	/** Generates the Easy, Medium and Hard puzzles that can be launched directly from GUI */
+	private static final PuzzleGenerator GENERATOR = new PuzzleGenerator();
 
-	/** The currently displayed Sudoku puzzle */
-	private final String currentPuzzle;
+	/** The currently displayed Sudoku puzzle as it was first loaded, never changed */
+	private SudokuBoard originalPuzzle;
 
 	/** The top-level controller class */
 	private final ContainerController controller;
 
-	/** 2D Array of GUICells in the puzzle */
-	private final GUICell[][] boardOfGUICells;
+	/** 2D Array of GUICells in the puzzle, sized to the current SudokuBoard */
+	private GUICell[][] boardOfGUICells;
 
-	/** The total number of GUICells in the 9x9 Board */
-	private final int totalNumOfCells;
+	/** The total number of GUICells in the Board */
+	private int totalNumOfCells;
 	/** The number of GUICells that have a number set */
 	private int numOfGuessedCells;
 
@@ -48,47 +46,44 @@ public class GUIBoard {
 	/** A GridPane with Groups, displaying information about a SudokuCell */
 	private GridPane gridPaneOfGroups;
 
+	/** Finds hints on this instance's SudokuBoard, or null until the first hint is asked for */
+	private HintEngine hintEngine;
+
+	/** The cells the action being recorded may change, or null if no action is being recorded */
+	private int[] editCells;
+	/** The number of each cell in editCells before the action */
+	private int[] editNumbers;
+	/** The annotations of each cell in editCells before the action */
+	private long[] editAnnotations;
+
 	/**
 	 * Create a new GUIBoard instance with a new SudokuBoard from the sample Sudoku CSV file.
 	 * Create a new GridPane to contain the GUICell's Group display.
 	 */
 	public GUIBoard (ContainerController controller) {
 		this.controller = controller;
-		this.sudokuBoard = new SudokuBoard(SAMPLE_PUZZLE);
-		this.currentPuzzle = SAMPLE_PUZZLE;
-		this.boardOfGUICells = new GUICell[rows][cols];
-		this.totalNumOfCells = 81;
+		this.originalPuzzle = new SudokuBoard(SAMPLE_PUZZLE);
+		this.sudokuBoard = new SudokuBoard(originalPuzzle);
 		this.numOfGuessedCells = 0;
 		initializeGUI();
 	}
 
-	/**
-	 * Create a new GUIBoard instance cloning the fields of the given GUIBoard.
-	 *
-	 * @param other GUIBoard to clone
-	 */
-	public GUIBoard (GUIBoard other) {
-		this.controller = other.controller;
-		this.sudokuBoard = new SudokuBoard(other.sudokuBoard);
-		this.currentPuzzle = other.currentPuzzle;
-		this.boardOfGUICells = new GUICell[rows][cols];
-		this.totalNumOfCells = other.totalNumOfCells;
-		this.numOfGuessedCells = other.numOfGuessedCells;
-		initializeGUI(other);
-	}
-
 	/**
 	 * Populates the 2D Array of GUICells and links up each GUICell with its corresponding SudokuCell from the
 	 * SudokuBoard. Adds each GUICell Group to the GridPane to be displayed on the GUI.
 	 */
 	private void initializeGUI () {
+		this.hintEngine = null;
 		try {
 			// create this GUIBoard's GridPane
 			FXMLLoader loader = new FXMLLoader();
 			loader.setLocation(GUICell.class.getResource("sudokuBoardGridPane.fxml"));
 			this.gridPaneOfGroups = loader.load();
-			for (int row = 0; row < rows; row++) {
-				for (int col = 0; col < cols; col++) {
+			int size = sudokuBoard.getSize();
+			this.boardOfGUICells = new GUICell[size][size];
+			this.totalNumOfCells = size * size;
+			for (int row = 0; row < size; row++) {
+				for (int col = 0; col < size; col++) {
 					// link each GUICell with its corresponding SudokuCell in the SudokuBoard
 					GUICell current = new GUICell(this);
 					current.setSudokuCell(sudokuBoard.getSudokuCell(row, col));
@@ -97,30 +92,7 @@ public class GUIBoard {
 					}
 					boardOfGUICells[row][col] = current;
 					gridPaneOfGroups.add(current.getGroup(), col, row);
-
-					// add slight margins to show visual distinction between sudoku regions
-					if (col == 2) {
-						GridPane.setMargin(current.getGroup(), new Insets(0, 4, 0, 0));
-					} else if (col == 6) {
-						GridPane.setMargin(current.getGroup(), new Insets(0, 0, 0, 4));
-					}
-					if (row == 2) {
-						if (col == 2) {
-							GridPane.setMargin(current.getGroup(), new Insets(0, 4, 4, 0));
-						} else if (col == 6) {
-							GridPane.setMargin(current.getGroup(), new Insets(0, 0, 4, 4));
-						} else {
-							GridPane.setMargin(current.getGroup(), new Insets(0, 0, 4, 0));
-						}
-					} else if (row == 6) {
-						if (col == 2) {
-							GridPane.setMargin(current.getGroup(), new Insets(4, 4, 0, 0));
-						} else if (col == 6) {
-							GridPane.setMargin(current.getGroup(), new Insets(4, 0, 0, 4));
-						} else {
-							GridPane.setMargin(current.getGroup(), new Insets(4, 0, 0, 0));
-						}
-					}
+					setRegionMargins(current, row, col);
 				}
 			}
 		} catch (IOException e) {
@@ -130,57 +102,21 @@ public class GUIBoard {
 	}
 
 	/**
-	 * Populates the 2D Array of GUICells with clones of the given GUIBoard and links up each GUICell
-	 * with its corresponding SudokuCell from this instance's SudokuBoard.
-	 * Adds each GUICell Group to the GridPane to be displayed on the GUI.
+	 * Add slight margins after the last row and column of each region, to show visual distinction between
+	 * sudoku regions.
 	 *
-	 * @param guiBoard GUIBoard to clone GUICells from
+	 * @param guiCell GUICell to set the margins of
+	 * @param row     row of the GUICell
+	 * @param col     column of the GUICell
 	 */
-	private void initializeGUI (GUIBoard guiBoard) {
-		try {
-			// create this GUIBoard's GridPane
-			FXMLLoader loader = new FXMLLoader();
-			loader.setLocation(GUICell.class.getResource("sudokuBoardGridPane.fxml"));
-			this.gridPaneOfGroups = loader.load();
-			for (int row = 0; row < rows; row++) {
-				for (int col = 0; col < cols; col++) {
-					// link each GUICell with its corresponding SudokuCell in the SudokuBoard
-					GUICell current = new GUICell(this, guiBoard.boardOfGUICells[row][col]);
-					current.setSudokuCell(sudokuBoard.getSudokuCell(row, col));
-					if (current.getSudokuCell().isGivenNumber()) {
-						++numOfGuessedCells;
-					}
-					boardOfGUICells[row][col] = current;
-					gridPaneOfGroups.add(current.getGroup(), col, row);
-
-					// add slight margins to show visual distinction between sudoku regions
-					if (col == 2) {
-						GridPane.setMargin(current.getGroup(), new Insets(0, 4, 0, 0));
-					} else if (col == 6) {
-						GridPane.setMargin(current.getGroup(), new Insets(0, 0, 0, 4));
-					}
-					if (row == 2) {
-						if (col == 2) {
-							GridPane.setMargin(current.getGroup(), new Insets(0, 4, 4, 0));
-						} else if (col == 6) {
-							GridPane.setMargin(current.getGroup(), new Insets(0, 0, 4, 4));
-						} else {
-							GridPane.setMargin(current.getGroup(), new Insets(0, 0, 4, 0));
-						}
-					} else if (row == 6) {
-						if (col == 2) {
-							GridPane.setMargin(current.getGroup(), new Insets(4, 4, 0, 0));
-						} else if (col == 6) {
-							GridPane.setMargin(current.getGroup(), new Insets(4, 0, 0, 4));
-						} else {
-							GridPane.setMargin(current.getGroup(), new Insets(4, 0, 0, 0));
-						}
-					}
-				}
-			}
-		} catch (IOException e) {
-			controller.errorMessage("Failed to create SudokuBoard GUI");
-			e.printStackTrace();
+	private void setRegionMargins (GUICell guiCell, int row, int col) {
+		int size = sudokuBoard.getSize();
+		int boxSize = sudokuBoard.getBoxSize();
+		boolean lastRowOfRegion = ( row + 1 ) % boxSize == 0 && row + 1 != size;
+		boolean lastColOfRegion = ( col + 1 ) % boxSize == 0 && col + 1 != size;
+		if (lastRowOfRegion || lastColOfRegion) {
+			GridPane.setMargin(guiCell.getGroup(), new Insets(0, lastColOfRegion ? REGION_MARGIN : 0,
+					lastRowOfRegion ? REGION_MARGIN : 0, 0));
 		}
 	}
 
@@ -195,9 +131,98 @@ public class GUIBoard {
 		initializeGUI();
 	}
 
-	/** Push the current GUIBoard state to the undo stack. */
-	public void pushNewBoardToUndoStack () {
-		controller.pushNewBoardToUndoStack();
+	/**
+	 * Start recording an action the user takes on the given GUICell, by saving the state of every cell it may change:
+	 * the GUICell itself, and its peers, whose annotations of a number set on the GUICell are removed.
+	 *
+	 * @param guiCell the GUICell the user acted on
+	 */
+	public void beginEdit (GUICell guiCell) {
+		int[] peers = getPeers(guiCell);
+		editCells = new int[peers.length + 1];
+		editCells[0] = guiCell.getSudokuCell().getRow() * getSize() + guiCell.getSudokuCell().getCol();
+		System.arraycopy(peers, 0, editCells, 1, peers.length);
+		editNumbers = new int[editCells.length];
+		editAnnotations = new long[editCells.length];
+		for (int i = 0; i < editCells.length; i++) {
+			SudokuCell sudokuCell = getGUICell(editCells[i]).getSudokuCell();
+			editNumbers[i] = sudokuCell.getNumber();
+			editAnnotations[i] = annotationsOf(sudokuCell);
+		}
+	}
+
+	/**
+	 * Finish recording the action started by {@link GUIBoard#beginEdit(GUICell)}, and push the cells it changed to
+	 * the undo stack as one edit. An action that changed nothing is not recorded.
+	 */
+	public void endEdit () {
+		int changed = 0;
+		int[] numbersAfter = new int[editCells.length];
+		long[] annotationsAfter = new long[editCells.length];
+		for (int i = 0; i < editCells.length; i++) {
+			SudokuCell sudokuCell = getGUICell(editCells[i]).getSudokuCell();
+			numbersAfter[i] = sudokuCell.getNumber();
+			annotationsAfter[i] = annotationsOf(sudokuCell);
+			if (numbersAfter[i] != editNumbers[i] || annotationsAfter[i] != editAnnotations[i]) {
+				// keep only the changed cells, at the front of each array
+				editCells[changed] = editCells[i];
+				editNumbers[changed] = editNumbers[i];
+				editAnnotations[changed] = editAnnotations[i];
+				numbersAfter[changed] = numbersAfter[i];
+				annotationsAfter[changed] = annotationsAfter[i];
+				++changed;
+			}
+		}
+		if (changed > 0) {
+			controller.pushEditToUndoStack(new BoardEdit(Arrays.copyOf(editCells, changed),
+					Arrays.copyOf(editNumbers, changed), Arrays.copyOf(numbersAfter, changed),
+					Arrays.copyOf(editAnnotations, changed), Arrays.copyOf(annotationsAfter, changed)));
+		}
+		editCells = null;
+		editNumbers = null;
+		editAnnotations = null;
+	}
+
+	/**
+	 * Undo the given edit, restoring every cell it changed to its state before the action.
+	 *
+	 * @param edit the last edit made, or redone, on this board
+	 */
+	public void undoEdit (BoardEdit edit) {
+		applyEdit(edit, false);
+	}
+
+	/**
+	 * Redo the given edit, restoring every cell it changed to its state after the action.
+	 *
+	 * @param edit the last edit undone on this board
+	 */
+	public void redoEdit (BoardEdit edit) {
+		applyEdit(edit, true);
+	}
+
+	/**
+	 * Restore every cell changed by the given edit to its state before or after the action.
+	 *
+	 * @param edit  an edit made on this board
+	 * @param after restore the state after the action, instead of before it?
+	 */
+	private void applyEdit (BoardEdit edit, boolean after) {
+		for (int i = 0; i < edit.getCellCount(); i++) {
+			getGUICell(edit.getCell(i)).restore(edit.getNumber(i, after), edit.getAnnotations(i, after));
+		}
+	}
+
+	/**
+	 * @param sudokuCell a SudokuCell
+	 * @return the annotations of the SudokuCell, where bit n - 1 is set if the number n is annotated
+	 */
+	private static long annotationsOf (SudokuCell sudokuCell) {
+		long annotations = 0;
+		for (int num : sudokuCell.getAnnotations()) {
+			annotations |= 1L << ( num - 1 );
+		}
+		return annotations;
 	}
 
 	/**
@@ -206,9 +231,9 @@ public class GUIBoard {
 	 * @param value boolean value to set
 	 */
 	public void setAnnotate (boolean value) {
-		for (int row = 0; row < rows; row++) {
-			for (int col = 0; col < cols; col++) {
-				boardOfGUICells[row][col].setAnnotate(value);
+		for (GUICell[] rowOfGUICells : boardOfGUICells) {
+			for (GUICell guiCell : rowOfGUICells) {
+				guiCell.setAnnotate(value);
 			}
 		}
 	}
@@ -219,9 +244,9 @@ public class GUIBoard {
 	 * @param value boolean value to set
 	 */
 	public void setErase (boolean value) {
-		for (int row = 0; row < rows; row++) {
-			for (int col = 0; col < cols; col++) {
-				boardOfGUICells[row][col].setErase(value);
+		for (GUICell[] rowOfGUICells : boardOfGUICells) {
+			for (GUICell guiCell : rowOfGUICells) {
+				guiCell.setErase(value);
 			}
 		}
 	}
@@ -231,24 +256,24 @@ public class GUIBoard {
 	 * clearing the undo and redo stacks
 	 */
 	public void resetBoard () {
-		sudokuBoard = new SudokuBoard(currentPuzzle);
+		sudokuBoard = new SudokuBoard(originalPuzzle);
 		numOfGuessedCells = 0;
 		initializeGUI();
 	}
 
-	/** Load the easy sudoku puzzle. */
+	/** Load a newly generated easy sudoku puzzle. */
 	public void loadEasyPuzzle () {
-		loadNewPuzzle(EASY_PUZZLE);
+		loadNewPuzzle(GENERATOR.generate(PuzzleGenerator.Difficulty.EASY));
 	}
 
-	/** Load the medium sudoku puzzle. */
+	/** Load a newly generated medium sudoku puzzle. */
 	public void loadMediumPuzzle () {
-		loadNewPuzzle(MEDIUM_PUZZLE);
+		loadNewPuzzle(GENERATOR.generate(PuzzleGenerator.Difficulty.MEDIUM));
 	}
 
-	/** Load the hard sudoku puzzle. */
+	/** Load a newly generated hard sudoku puzzle. */
 	public void loadHardPuzzle () {
-		loadNewPuzzle(HARD_PUZZLE);
+		loadNewPuzzle(GENERATOR.generate(PuzzleGenerator.Difficulty.HARD));
 	}
 
 	/**
@@ -257,7 +282,17 @@ public class GUIBoard {
 	 * @param filename Sudoku CSV filename
 	 */
 	public void loadNewPuzzle (String filename) {
-		sudokuBoard = new SudokuBoard(filename);
+		loadNewPuzzle(new SudokuBoard(filename));
+	}
+
+	/**
+	 * Load the given Sudoku puzzle, which becomes the state the board is reset to.
+	 *
+	 * @param puzzle SudokuBoard to load, which is not changed
+	 */
+	public void loadNewPuzzle (SudokuBoard puzzle) {
+		originalPuzzle = puzzle;
+		sudokuBoard = new SudokuBoard(puzzle);
 		numOfGuessedCells = 0;
 		initializeGUI();
 	}
@@ -282,6 +317,39 @@ public class GUIBoard {
 		--numOfGuessedCells;
 	}
 
+	/**
+	 * Keep the hint engine, if one has been created, in step with a number set on the given GUICell.
+	 *
+	 * @param guiCell a GUICell
+	 * @param num     the number set on the GUICell
+	 */
+	public void numberSet (GUICell guiCell, int num) {
+		if (hintEngine != null) {
+			hintEngine.place(guiCell.getSudokuCell().getRow(), guiCell.getSudokuCell().getCol(), num);
+		}
+	}
+
+	/**
+	 * Keep the hint engine, if one has been created, in step with a number removed from the given GUICell.
+	 *
+	 * @param guiCell a GUICell
+	 */
+	public void numberRemoved (GUICell guiCell) {
+		if (hintEngine != null) {
+			hintEngine.remove(guiCell.getSudokuCell().getRow(), guiCell.getSudokuCell().getCol());
+		}
+	}
+
+	/**
+	 * @return the hint engine following this instance's SudokuBoard, created on first use
+	 */
+	public HintEngine getHintEngine () {
+		if (hintEngine == null) {
+			hintEngine = new HintEngine(sudokuBoard);
+		}
+		return hintEngine;
+	}
+
 	/**
 	 * Find all GUICells with their number set to the given number guessed on the given GUICell, in the region,
 	 * row and column of the given GUICell. Highlight these numbers red to indicate there is a conflict.
@@ -290,31 +358,8 @@ public class GUIBoard {
 	 * @param num     the number guessed on the GUICell
 	 */
 	public void highlightConflictingSetNumbers (GUICell guiCell, int num) {
-		int region = guiCell.getSudokuCell().getRegion();
-		for (GUICell current : getRegion(region)) {
-			if (current.equals(guiCell)) {
-				continue;
-			}
-			if (current.getSudokuCell().getNumber() == num) {
-				current.setConflicting(true);
-				guiCell.setConflicting(true);
-			}
-		}
-		int row = guiCell.getSudokuCell().getRow();
-		for (GUICell current : getRow(row)) {
-			if (current.equals(guiCell)) {
-				continue;
-			}
-			if (current.getSudokuCell().getNumber() == num) {
-				current.setConflicting(true);
-				guiCell.setConflicting(true);
-			}
-		}
-		int col = guiCell.getSudokuCell().getCol();
-		for (GUICell current : getCol(col)) {
-			if (current.equals(guiCell)) {
-				continue;
-			}
+		for (int peer : getPeers(guiCell)) {
+			GUICell current = getGUICell(peer);
 			if (current.getSudokuCell().getNumber() == num) {
 				current.setConflicting(true);
 				guiCell.setConflicting(true);
@@ -331,31 +376,8 @@ public class GUIBoard {
 	 * @param num     the number removed from the GUICell
 	 */
 	public void removeHighlightFromPreviouslyConflictingSetNumbers (GUICell guiCell, int num) {
-		int region = guiCell.getSudokuCell().getRegion();
-		for (GUICell current : getRegion(region)) {
-			if (current.equals(guiCell)) {
-				continue;
-			}
-			if (current.getSudokuCell().getNumber() == num) {
-				current.setConflicting(false);
-				guiCell.setConflicting(false);
-			}
-		}
-		int row = guiCell.getSudokuCell().getRow();
-		for (GUICell current : getRow(row)) {
-			if (current.equals(guiCell)) {
-				continue;
-			}
-			if (current.getSudokuCell().getNumber() == num) {
-				current.setConflicting(false);
-				guiCell.setConflicting(false);
-			}
-		}
-		int col = guiCell.getSudokuCell().getCol();
-		for (GUICell current : getCol(col)) {
-			if (current.equals(guiCell)) {
-				continue;
-			}
+		for (int peer : getPeers(guiCell)) {
+			GUICell current = getGUICell(peer);
 			if (current.getSudokuCell().getNumber() == num) {
 				current.setConflicting(false);
 				guiCell.setConflicting(false);
@@ -371,68 +393,54 @@ public class GUIBoard {
 	 * @param num     the number guessed on the GUICell
 	 */
 	public void removeConflictingAnnotations (GUICell guiCell, int num) {
-		int region = guiCell.getSudokuCell().getRegion();
-		for (GUICell current : getRegion(region)) {
-			current.removeAnnotation(num);
-		}
-		int row = guiCell.getSudokuCell().getRow();
-		for (GUICell current : getRow(row)) {
-			current.removeAnnotation(num);
-		}
-		int col = guiCell.getSudokuCell().getCol();
-		for (GUICell current : getCol(col)) {
-			current.removeAnnotation(num);
+		guiCell.removeAnnotation(num);
+		for (int peer : getPeers(guiCell)) {
+			getGUICell(peer).removeAnnotation(num);
 		}
 	}
 
 	/**
-	 * Get all the GUICell's that contain a SudokuCell in the given region.
+	 * Get the cells sharing a region, row or column with the given GUICell, from the tables shared by every board
+	 * of this size.
 	 *
-	 * @param region region to look for
-	 * @return ArrayList of GUICells
+	 * @param guiCell a GUICell
+	 * @return cell indices in row-major order
 	 */
-	private ArrayList<GUICell> getRegion (int region) {
-		ArrayList<GUICell> guiCells = new ArrayList<>(9); // there will only ever be 9 GUICells in a region
-		for (int row = 0; row < rows; row++) {
-			for (int col = 0; col < cols; col++) {
-				GUICell current = boardOfGUICells[row][col];
-				if (current.getSudokuCell().getRegion() == region) {
-					guiCells.add(current);
-				}
-			}
-		}
-		return guiCells;
+	private int[] getPeers (GUICell guiCell) {
+		int size = sudokuBoard.getSize();
+		SudokuCell sudokuCell = guiCell.getSudokuCell();
+		return UnitTables.of(size).getPeers(sudokuCell.getRow() * size + sudokuCell.getCol());
 	}
 
 	/**
-	 * Get all the GUICells in the given row.
+	 * Get the GUICell at the given cell index.
 	 *
-	 * @param row row to look for
-	 * @return Array of GUICells
+	 * @param cell cell index in row-major order
+	 * @return GUICell at the given index
 	 */
-	private GUICell[] getRow (int row) {
-		return boardOfGUICells[row];
+	private GUICell getGUICell (int cell) {
+		return boardOfGUICells[cell / boardOfGUICells.length][cell % boardOfGUICells.length];
 	}
 
 	/**
-	 * Get all the GUICells in the given col.
-	 *
-	 * @param col column to look for
-	 * @return Array of GUICells
+	 * @return the currently displayed Sudoku puzzle as it was first loaded
 	 */
-	private GUICell[] getCol (int col) {
-		GUICell[] column = new GUICell[rows];
-		for (int row = 0; row < rows; row++) {
-			column[row] = boardOfGUICells[row][col];
-		}
-		return column;
+	public SudokuBoard getOriginalPuzzle () {
+		return originalPuzzle;
+	}
+
+	/**
+	 * @return the number of rows and columns of GUICells, which is also the largest number
+	 */
+	public int getSize () {
+		return sudokuBoard.getSize();
 	}
 
 	/**
-	 * @return
+	 * @return the number of rows and columns of GUICells in each region
 	 */
-	public String getCurrentPuzzle () {
-		return currentPuzzle;
+	public int getBoxSize () {
+		return sudokuBoard.getBoxSize();
 	}
 
 	/**
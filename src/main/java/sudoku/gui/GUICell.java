@@ -10,6 +10,8 @@ import javafx.scene.paint.Color;
 import sudoku.puzzle.SudokuCell;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -19,6 +21,9 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * that changes made to the SudokuCell to the user.
  */
 public class GUICell {
+	/** Width and height of the Group displaying a SudokuCell */
+	private static final double CELL_SIZE = 75.0;
+
 	/** The GUIBoard that contains this GUICell, used to add previous states of this GUICell to the undo stack */
 	private final GUIBoard guiBoard;
 
@@ -55,23 +60,6 @@ public class GUICell {
 		initializeGUI();
 	}
 
-	/**
-	 * Create a new GUICell instance cloning the given GUICell's fields, and belonging to the given GUIBoard.
-	 * This instance's SudokuCell will be set to null, and {@link GUICell#setSudokuCell(SudokuCell)} should be called
-	 * afterwards to set its value.
-	 *
-	 * @param otherBoard the GUIBoard that contains this GUICell in a 2D Array
-	 * @param otherCell  the GUICell to clone
-	 */
-	public GUICell (GUIBoard otherBoard, GUICell otherCell) {
-		this.sudokuCell = null;
-		this.annotate = new AtomicBoolean(otherCell.annotate.get());
-		this.erase = new AtomicBoolean(otherCell.erase.get());
-		this.conflicting = otherCell.conflicting;
-		this.guiBoard = otherBoard;
-		initializeGUI();
-	}
-
 	/**
 	 * Initialize the behavior each annotation button will have.
 	 * Will either add the button pressed as the SudokuCell's number or as annotation (annotate flag dependent).
@@ -85,46 +73,48 @@ public class GUICell {
 			this.group = loader.load();
 			this.annotationsGridPane = (GridPane) group.getChildren().get(0);
 			this.cellNumberLabel = (Label) group.getChildren().get(1);
+			layoutAnnotationButtons(guiBoard.getSize(), guiBoard.getBoxSize());
 			for (Node annotationNumBtn : annotationsGridPane.getChildren()) {
-				AtomicBoolean marked = new AtomicBoolean(false);    // has the button been pressed?
+				int num = Integer.parseInt(( (Button) annotationNumBtn ).getText());
 				// display on hover, only if erase is not on
 				annotationNumBtn.setOnMouseEntered(event -> {
 					if (!erase.get()) {
 						annotationNumBtn.setOpacity(1.0);
 					}
 				});
-				// disappear when not hovered, only if not marked
+				// disappear when not hovered, only if not annotated
 				annotationNumBtn.setOnMouseExited(event -> {
-					if (!marked.get()) {
+					if (!sudokuCell.getAnnotations().contains(num)) {
 						annotationNumBtn.setOpacity(0.0);
 					}
 				});
 
 				( (Button) annotationNumBtn ).setOnAction(event -> {
-					// add current GUIBoard state to undo stack
-					guiBoard.pushNewBoardToUndoStack();
+					// record the changes this press makes, so they can be undone
+					guiBoard.beginEdit(this);
 					if (erase.get()) {
 						// erase annotation
-						if (marked.compareAndSet(true, false)) {
-							removeAnnotation(Integer.parseInt(( (Button) annotationNumBtn ).getText()));
+						if (sudokuCell.getAnnotations().contains(num)) {
+							removeAnnotation(num);
 						}
 					} else if (annotate.get()) {
 						// set annotation
-						if (marked.compareAndSet(false, true)) {
-							addAnnotation(Integer.parseInt(( (Button) annotationNumBtn ).getText()));
+						if (!sudokuCell.getAnnotations().contains(num)) {
+							addAnnotation(num);
 						}
 					} else {
 						// set the number selected as this SudokuCell's number
-						marked.set(false);
-						setSudokuCellNumber(Integer.parseInt(( (Button) annotationNumBtn ).getText()));
+						setSudokuCellNumber(num);
 					}
+					guiBoard.endEdit();
 				});
 			}
 			cellNumberLabel.setOnMouseClicked(event -> {
 				if (erase.get()) {
-					// add current GUIBoard state to undo stack
-					guiBoard.pushNewBoardToUndoStack();
+					// record the changes this click makes, so they can be undone
+					guiBoard.beginEdit(this);
 					removeSudokuCellNumber();
+					guiBoard.endEdit();
 				}
 			});
 		} catch (IOException e) {
@@ -132,6 +122,42 @@ public class GUICell {
 		}
 	}
 
+	/**
+	 * Lay out one annotation button per number of the board, in a square of boxSize rows and columns that fits
+	 * within the cell. The FXML only defines the buttons [1, 9] of a 9x9 board, so for any other size the buttons
+	 * are recreated from the first one, keeping its look.
+	 *
+	 * @param size    the largest number on the board
+	 * @param boxSize the number of rows and columns in each region
+	 */
+	private void layoutAnnotationButtons (int size, int boxSize) {
+		if (size == annotationsGridPane.getChildren().size()) {
+			return;
+		}
+		Button template = (Button) annotationsGridPane.getChildren().get(0);
+		double buttonSize = CELL_SIZE / boxSize;
+		List<Button> buttons = new ArrayList<>(size);
+		for (int num = 1; num <= size; num++) {
+			Button button = new Button(String.valueOf(num));
+			button.setAlignment(template.getAlignment());
+			button.setFont(template.getFont());
+			button.setTextFill(template.getTextFill());
+			button.setTextAlignment(template.getTextAlignment());
+			button.setTextOverrun(template.getTextOverrun());
+			button.setStyle(template.getStyle());
+			button.setMnemonicParsing(false);
+			button.setOpacity(0.0);
+			button.setMinSize(Button.USE_PREF_SIZE, Button.USE_PREF_SIZE);
+			button.setMaxSize(Button.USE_PREF_SIZE, Button.USE_PREF_SIZE);
+			button.setPrefSize(buttonSize, buttonSize);
+			GridPane.setConstraints(button, ( num - 1 ) % boxSize, ( num - 1 ) / boxSize);
+			buttons.add(button);
+		}
+		annotationsGridPane.getColumnConstraints().clear();
+		annotationsGridPane.getRowConstraints().clear();
+		annotationsGridPane.getChildren().setAll(buttons);
+	}
+
 	/**
 	 * Update the SudokuCell this GUICell is to represent.
 	 *
@@ -149,12 +175,44 @@ public class GUICell {
 	 */
 	private void setSudokuCellNumber (int num) {
 		sudokuCell.setNumber(num);
+		guiBoard.numberSet(this, num);
 		guiBoard.incrementGuessedCellsCount();
 		updateDisplay();
 		guiBoard.removeConflictingAnnotations(this, num);
 		guiBoard.highlightConflictingSetNumbers(this, num);
 	}
 
+	/**
+	 * Restore the number and annotations of this instance's SudokuCell, when an edit is undone or redone. Unlike a
+	 * number set by the user, restoring a number leaves the annotations of other GUICells alone, since any the
+	 * edit changed are restored by the edit too.
+	 *
+	 * @param num         number to restore, or 0 for an empty SudokuCell
+	 * @param annotations annotations to restore, where bit n - 1 is set if the number n is annotated
+	 */
+	void restore (int num, long annotations) {
+		int current = sudokuCell.getNumber();
+		if (current != num && !sudokuCell.isGivenNumber()) {
+			if (current != 0) {
+				removeSudokuCellNumber();
+			}
+			if (num != 0) {
+				sudokuCell.setNumber(num);
+				guiBoard.numberSet(this, num);
+				guiBoard.incrementGuessedCellsCount();
+				guiBoard.highlightConflictingSetNumbers(this, num);
+			}
+		}
+		for (int n = 1; n <= guiBoard.getSize(); n++) {
+			if (( annotations & ( 1L << ( n - 1 ) ) ) != 0) {
+				sudokuCell.addAnnotation(n);
+			} else {
+				sudokuCell.removeAnnotation(n);
+			}
+		}
+		updateDisplay();
+	}
+
 	/**
 	 * Remove this instance's SudokuCell number, if the SudokuCell does not contain a given number.
 	 */
@@ -162,6 +220,7 @@ public class GUICell {
 		if (!sudokuCell.isGivenNumber()) {
 			int num = sudokuCell.getNumber();
 			sudokuCell.removeNumber();
+			guiBoard.numberRemoved(this);
 			guiBoard.decrementGuessedCellsCount();
 			updateDisplay();
 			guiBoard.removeHighlightFromPreviouslyConflictingSetNumbers(this, num);
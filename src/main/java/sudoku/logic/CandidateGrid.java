@@ -0,0 +1,204 @@
+package sudoku.logic;
+
+import sudoku.puzzle.SudokuBoard;
+import sudoku.puzzle.SudokuCell;
+import sudoku.puzzle.UnitTables;
+
+/**
+ * Class tracking the number and the remaining candidates of every cell of an NxN Sudoku board, for solving with
+ * logical techniques. Cells are indexed in row-major order and candidates are long masks where bit n - 1 is set if
+ * the number n is a candidate. Placing a number removes it from the candidates of the cell's peers.
+ */
+public class CandidateGrid {
+	/** The number of rows, columns and numbers in the grid */
+	private final int size;
+	/** The number of cells in the grid */
+	private final int cells;
+	/** Mask with a bit set for every number in the range [1, size] */
+	private final long allNumbers;
+	/** The cells of each unit: rows, then columns, then regions, size units of each */
+	private final int[][] units;
+	/** The units and peers of every cell, shared by every grid of this size */
+	private final UnitTables tables;
+
+	/** The number of each cell, or 0 if empty */
+	private final int[] numbers;
+	/** The candidates of each cell, 0 once the cell has a number */
+	private final long[] candidates;
+	/** Which cells contain a given number */
+	private final boolean[] givenNumbers;
+	/** The number of empty cells */
+	private int emptyCells;
+	/** Has a cell run out of candidates, or a number been repeated? */
+	private boolean contradiction;
+
+	/**
+	 * Create a new CandidateGrid instance from the numbers in the given SudokuBoard.
+	 * Any number repeated within a row, column or region marks the grid as a contradiction.
+	 *
+	 * @param sudokuBoard SudokuBoard to read numbers from
+	 */
+	public CandidateGrid (SudokuBoard sudokuBoard) {
+		this.size = sudokuBoard.getSize();
+		this.cells = size * size;
+		this.allNumbers = ( 1L << size ) - 1;
+		this.tables = UnitTables.of(size);
+		this.units = tables.getUnits();
+		this.numbers = new int[cells];
+		this.candidates = new long[cells];
+		this.givenNumbers = new boolean[cells];
+		this.emptyCells = cells;
+		this.contradiction = false;
+		for (int cell = 0; cell < cells; cell++) {
+			candidates[cell] = allNumbers;
+		}
+		for (int cell = 0; cell < cells; cell++) {
+			SudokuCell sudokuCell = sudokuBoard.getSudokuCell(cell / size, cell % size);
+			givenNumbers[cell] = sudokuCell.isGivenNumber();
+			if (sudokuCell.getNumber() != 0) {
+				place(cell, sudokuCell.getNumber());
+			}
+		}
+	}
+
+	/**
+	 * Create a new CandidateGrid instance copying the state of the given CandidateGrid.
+	 *
+	 * @param other CandidateGrid to copy
+	 */
+	public CandidateGrid (CandidateGrid other) {
+		this.size = other.size;
+		this.cells = other.cells;
+		this.allNumbers = other.allNumbers;
+		this.units = other.units;
+		this.tables = other.tables;
+		this.numbers = other.numbers.clone();
+		this.candidates = other.candidates.clone();
+		this.givenNumbers = other.givenNumbers;
+		this.emptyCells = other.emptyCells;
+		this.contradiction = other.contradiction;
+	}
+
+	/**
+	 * Place the given number in the given cell and remove it from the candidates of the cell's peers.
+	 * Placing a number that is not a candidate, or leaving a peer with no candidates, marks a contradiction.
+	 *
+	 * @param cell cell index in row-major order
+	 * @param num  number to place
+	 */
+	public void place (int cell, int num) {
+		long bit = 1L << ( num - 1 );
+		if (numbers[cell] != 0 || ( candidates[cell] & bit ) == 0) {
+			contradiction = true;
+		}
+		numbers[cell] = num;
+		candidates[cell] = 0;
+		--emptyCells;
+		for (int peer : tables.getPeers(cell)) {
+			if (numbers[peer] == 0) {
+				eliminate(peer, num);
+			} else if (numbers[peer] == num) {
+				contradiction = true;
+			}
+		}
+	}
+
+	/**
+	 * Remove the given number from the candidates of the given empty cell.
+	 *
+	 * @param cell cell index in row-major order
+	 * @param num  number to remove
+	 * @return true if the number was a candidate and has been removed
+	 */
+	public boolean eliminate (int cell, int num) {
+		long bit = 1L << ( num - 1 );
+		if (( candidates[cell] & bit ) == 0) {
+			return false;
+		}
+		candidates[cell] &= ~bit;
+		if (candidates[cell] == 0) {
+			contradiction = true;
+		}
+		return true;
+	}
+
+	/**
+	 * @param cell cell index in row-major order
+	 * @return the number in the cell, or 0 if empty
+	 */
+	public int getNumber (int cell) {
+		return numbers[cell];
+	}
+
+	/**
+	 * @param cell cell index in row-major order
+	 * @return the candidates of the cell, where bit n - 1 is set if the number n is a candidate
+	 */
+	public long getCandidates (int cell) {
+		return candidates[cell];
+	}
+
+	/**
+	 * @return the number of rows, columns and numbers in the grid
+	 */
+	public int getSize () {
+		return size;
+	}
+
+	/**
+	 * @return the number of cells in the grid
+	 */
+	public int getCells () {
+		return cells;
+	}
+
+	/**
+	 * @return mask with a bit set for every number in the range [1, size]
+	 */
+	public long getAllNumbers () {
+		return allNumbers;
+	}
+
+	/**
+	 * @return the cells of each unit: rows, then columns, then regions, size units of each
+	 */
+	int[][] getUnits () {
+		return units;
+	}
+
+	/**
+	 * @return true if every cell has a number
+	 */
+	public boolean isSolved () {
+		return emptyCells == 0 && !contradiction;
+	}
+
+	/**
+	 * @return true if a cell ran out of candidates or a number was repeated, so the grid has no solution
+	 */
+	public boolean hasContradiction () {
+		return contradiction;
+	}
+
+	/**
+	 * Mark this grid as having no solution, such as when a number has no cell left in a unit.
+	 */
+	void markContradiction () {
+		contradiction = true;
+	}
+
+	/**
+	 * Convert this grid into a SudokuBoard, keeping track of which numbers were given.
+	 *
+	 * @return a new SudokuBoard with the numbers placed in this grid
+	 */
+	public SudokuBoard toSudokuBoard () {
+		int[][] cellValues = new int[size][size];
+		boolean[][] given = new boolean[size][size];
+		for (int cell = 0; cell < cells; cell++) {
+			cellValues[cell / size][cell % size] = numbers[cell];
+			given[cell / size][cell % size] = givenNumbers[cell];
+		}
+		return new SudokuBoard(cellValues, given);
+	}
+}
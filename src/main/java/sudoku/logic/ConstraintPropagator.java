@@ -0,0 +1,575 @@
+package sudoku.logic;
+
+import sudoku.puzzle.SudokuBoard;
+import sudoku.puzzle.UnitTables;
+
+import java.util.EnumMap;
+
+/**
+ * Class that fills in as much of a Sudoku board as possible without guessing, by repeatedly applying logical
+ * techniques, up to a hardest technique, until none of them make progress. By default these are naked singles,
+ * hidden singles and locked candidates (pointing and claiming). After any progress, propagation starts over from the
+ * simplest technique, the way a human solver would.
+ */
+public class ConstraintPropagator {
+	/** Every technique, from simplest to hardest */
+	private static final Technique[] TECHNIQUES = Technique.values();
+
+	/** The hardest technique applied */
+	private final Technique hardestTechnique;
+
+	/** Create a new ConstraintPropagator applying singles and locked candidates. */
+	public ConstraintPropagator () {
+		this(Technique.CLAIMING);
+	}
+
+	/**
+	 * Create a new ConstraintPropagator applying every technique up to the given one.
+	 *
+	 * @param hardestTechnique the hardest technique applied
+	 */
+	public ConstraintPropagator (Technique hardestTechnique) {
+		this.hardestTechnique = hardestTechnique;
+	}
+
+	/**
+	 * @return the hardest technique applied
+	 */
+	public Technique getHardestTechnique () {
+		return hardestTechnique;
+	}
+
+	/**
+	 * Propagate constraints on the given SudokuBoard, which is not changed.
+	 *
+	 * @param sudokuBoard SudokuBoard to propagate
+	 * @return the board left after propagation, and the techniques that fired
+	 */
+	public PropagationResult propagate (SudokuBoard sudokuBoard) {
+		CandidateGrid grid = new CandidateGrid(sudokuBoard);
+		EnumMap<Technique, Integer> techniqueCounts = new EnumMap<>(Technique.class);
+		propagate(grid, techniqueCounts);
+		return new PropagationResult(grid, techniqueCounts);
+	}
+
+	/**
+	 * Propagate constraints on the given grid until no technique makes progress, the grid is solved,
+	 * or a contradiction is found.
+	 *
+	 * @param grid            grid to propagate, changed in place
+	 * @param techniqueCounts counts of each technique, updated as techniques fire
+	 */
+	public void propagate (CandidateGrid grid, EnumMap<Technique, Integer> techniqueCounts) {
+		boolean progress = true;
+		while (progress && !grid.isSolved() && !grid.hasContradiction()) {
+			progress = false;
+			for (int i = 0; i <= hardestTechnique.ordinal() && !progress && !grid.hasContradiction(); i++) {
+				progress = apply(TECHNIQUES[i], grid, techniqueCounts);
+			}
+		}
+	}
+
+	/**
+	 * Apply one technique everywhere it can be used on the grid.
+	 *
+	 * @param technique       technique to apply
+	 * @param grid            grid to change
+	 * @param techniqueCounts counts of each technique
+	 * @return true if a number was placed or a candidate removed
+	 */
+	boolean apply (Technique technique, CandidateGrid grid, EnumMap<Technique, Integer> techniqueCounts) {
+		return switch (technique) {
+			case NAKED_SINGLE -> applyNakedSingles(grid, techniqueCounts);
+			case HIDDEN_SINGLE -> applyHiddenSingles(grid, techniqueCounts);
+			case POINTING, CLAIMING -> applyLockedCandidates(grid, techniqueCounts, technique == Technique.POINTING);
+			case NAKED_PAIR -> applyNakedSubsets(grid, techniqueCounts, 2, technique);
+			case HIDDEN_PAIR -> applyHiddenSubsets(grid, techniqueCounts, 2, technique);
+			case NAKED_TRIPLE -> applyNakedSubsets(grid, techniqueCounts, 3, technique);
+			case HIDDEN_TRIPLE -> applyHiddenSubsets(grid, techniqueCounts, 3, technique);
+			case X_WING -> applyFish(grid, techniqueCounts, 2, technique);
+			case SWORDFISH -> applyFish(grid, techniqueCounts, 3, technique);
+		};
+	}
+
+	/**
+	 * Record that the given technique fired.
+	 *
+	 * @param techniqueCounts counts of each technique
+	 * @param technique       technique that fired
+	 */
+	private static void record (EnumMap<Technique, Integer> techniqueCounts, Technique technique) {
+		techniqueCounts.merge(technique, 1, Integer::sum);
+	}
+
+	/**
+	 * Place the number in every empty cell that has only one candidate.
+	 *
+	 * @param grid            grid to change
+	 * @param techniqueCounts counts of each technique
+	 * @return true if a number was placed
+	 */
+	private boolean applyNakedSingles (CandidateGrid grid, EnumMap<Technique, Integer> techniqueCounts) {
+		boolean progress = false;
+		for (int cell = 0; cell < grid.getCells() && !grid.hasContradiction(); cell++) {
+			long candidates = grid.getCandidates(cell);
+			if (grid.getNumber(cell) == 0 && Long.bitCount(candidates) == 1) {
+				grid.place(cell, Long.numberOfTrailingZeros(candidates) + 1);
+				record(techniqueCounts, Technique.NAKED_SINGLE);
+				progress = true;
+			}
+		}
+		return progress;
+	}
+
+	/**
+	 * Place every number that has only one candidate cell left in a row, column or region.
+	 * A number with no cell left in a unit that does not already contain it is a contradiction.
+	 *
+	 * @param grid            grid to change
+	 * @param techniqueCounts counts of each technique
+	 * @return true if a number was placed
+	 */
+	private boolean applyHiddenSingles (CandidateGrid grid, EnumMap<Technique, Integer> techniqueCounts) {
+		boolean progress = false;
+		for (int[] unit : grid.getUnits()) {
+			long singles = findHiddenSingles(grid, unit);
+			if (grid.hasContradiction()) {
+				return false;
+			}
+			for (; singles != 0; singles &= singles - 1) {
+				long bit = Long.lowestOneBit(singles);
+				// an earlier single may have taken the only cell this number had
+				int cell = findCellWithCandidate(grid, unit, bit);
+				if (cell != -1) {
+					grid.place(cell, Long.numberOfTrailingZeros(bit) + 1);
+					record(techniqueCounts, Technique.HIDDEN_SINGLE);
+					progress = true;
+				}
+			}
+			if (grid.hasContradiction()) {
+				return false;
+			}
+		}
+		return progress;
+	}
+
+	/**
+	 * Find the numbers with only one candidate cell left in a row, column or region, without placing them.
+	 * A number with no cell left in a unit that does not already contain it marks the grid as a contradiction.
+	 *
+	 * @param grid grid to search
+	 * @param unit cells of the unit
+	 * @return the hidden singles of the unit, where bit n - 1 is set if n is one, or 0 on a contradiction
+	 */
+	static long findHiddenSingles (CandidateGrid grid, int[] unit) {
+		// numbers seen at least once and at least twice as candidates in this unit, and numbers placed in it
+		long once = 0;
+		long twice = 0;
+		long placed = 0;
+		for (int cell : unit) {
+			long candidates = grid.getCandidates(cell);
+			twice |= once & candidates;
+			once |= candidates;
+			if (grid.getNumber(cell) != 0) {
+				placed |= 1L << ( grid.getNumber(cell) - 1 );
+			}
+		}
+		long allNumbers = grid.getAllNumbers();
+		if (( ( once | placed ) & allNumbers ) != allNumbers) {
+			grid.markContradiction();
+			return 0;
+		}
+		return once & ~twice;
+	}
+
+	/**
+	 * @param grid grid to search
+	 * @param unit cells of the unit
+	 * @param bit  bit n - 1 set for a number n
+	 * @return the first cell of the unit with n as a candidate, or -1 if there is none
+	 */
+	static int findCellWithCandidate (CandidateGrid grid, int[] unit, long bit) {
+		for (int cell : unit) {
+			if (( grid.getCandidates(cell) & bit ) != 0) {
+				return cell;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Apply pointing (a region's candidates for a number lie in one row or column) or claiming (a row's or column's
+	 * candidates for a number lie in one region) eliminations.
+	 *
+	 * @param grid            grid to change
+	 * @param techniqueCounts counts of each technique
+	 * @param pointing        true to apply pointing, false to apply claiming
+	 * @return true if a candidate was removed
+	 */
+	private boolean applyLockedCandidates (CandidateGrid grid, EnumMap<Technique, Integer> techniqueCounts,
+	                                       boolean pointing) {
+		boolean progress = false;
+		int size = grid.getSize();
+		UnitTables tables = UnitTables.of(size);
+		int[][] units = grid.getUnits();
+		int firstUnit = pointing ? 2 * size : 0;
+		int lastUnit = pointing ? 3 * size : 2 * size;
+		for (int unitIndex = firstUnit; unitIndex < lastUnit; unitIndex++) {
+			int[] unit = units[unitIndex];
+			for (int num = 1; num <= size; num++) {
+				long bit = 1L << ( num - 1 );
+				// the rows, columns and regions of the cells in this unit with num as a candidate
+				long rows = 0;
+				long cols = 0;
+				long regions = 0;
+				for (int cell : unit) {
+					if (( grid.getCandidates(cell) & bit ) != 0) {
+						rows |= 1L << ( cell / size );
+						cols |= 1L << ( cell % size );
+						regions |= 1L << tables.getRegionOf(cell);
+					}
+				}
+				if (rows == 0) {
+					continue;
+				}
+				int eliminated = 0;
+				if (pointing) {
+					if (Long.bitCount(rows) == 1) {
+						eliminated = eliminateOutside(grid, units[Long.numberOfTrailingZeros(rows)], unit, num);
+					} else if (Long.bitCount(cols) == 1) {
+						int col = Long.numberOfTrailingZeros(cols);
+						eliminated = eliminateOutside(grid, units[size + col], unit, num);
+					}
+				} else if (Long.bitCount(regions) == 1) {
+					int region = Long.numberOfTrailingZeros(regions);
+					eliminated = eliminateOutside(grid, units[2 * size + region], unit, num);
+				}
+				if (eliminated > 0) {
+					record(techniqueCounts, pointing ? Technique.POINTING : Technique.CLAIMING);
+					progress = true;
+					if (grid.hasContradiction()) {
+						return false;
+					}
+				}
+			}
+		}
+		return progress;
+	}
+
+	/**
+	 * Find every set of k empty cells in a unit whose candidates together are only k numbers, and remove those
+	 * numbers from the other cells of the unit.
+	 *
+	 * @param grid            grid to change
+	 * @param techniqueCounts counts of each technique
+	 * @param k               the number of cells in each set
+	 * @param technique       the technique recorded for each set that removes a candidate
+	 * @return true if a candidate was removed
+	 */
+	private boolean applyNakedSubsets (CandidateGrid grid, EnumMap<Technique, Integer> techniqueCounts, int k,
+	                                   Technique technique) {
+		boolean progress = false;
+		int[] chosen = new int[k];
+		for (int[] unit : grid.getUnits()) {
+			// only cells with between 2 and k candidates can be part of a set
+			int[] members = new int[unit.length];
+			int count = 0;
+			for (int i = 0; i < unit.length; i++) {
+				int candidateCount = Long.bitCount(grid.getCandidates(unit[i]));
+				if (candidateCount >= 2 && candidateCount <= k) {
+					members[count++] = i;
+				}
+			}
+			if (count >= k && nakedSubsets(grid, techniqueCounts, unit, members, count, chosen, 0, 0, 0L, technique)) {
+				progress = true;
+				if (grid.hasContradiction()) {
+					return false;
+				}
+			}
+		}
+		return progress;
+	}
+
+	/**
+	 * Recursive step of {@link ConstraintPropagator#applyNakedSubsets}, choosing the remaining cells of a set.
+	 *
+	 * @param grid            grid to change
+	 * @param techniqueCounts counts of each technique
+	 * @param unit            cells of the unit
+	 * @param members         indices in the unit of the cells that may be part of a set
+	 * @param count           the number of entries in members
+	 * @param chosen          indices in the unit of the cells chosen so far
+	 * @param depth           the number of cells chosen so far
+	 * @param start           the first entry of members that may be chosen next
+	 * @param union           the candidates of the cells chosen so far
+	 * @param technique       the technique recorded for each set that removes a candidate
+	 * @return true if a candidate was removed
+	 */
+	private boolean nakedSubsets (CandidateGrid grid, EnumMap<Technique, Integer> techniqueCounts, int[] unit,
+	                              int[] members, int count, int[] chosen, int depth, int start, long union,
+	                              Technique technique) {
+		int k = chosen.length;
+		if (depth == k) {
+			if (Long.bitCount(union) != k) {
+				return false;
+			}
+			int eliminated = 0;
+			for (int i = 0; i < unit.length; i++) {
+				if (grid.getNumber(unit[i]) == 0 && !contains(chosen, i)) {
+					for (long nums = union; nums != 0; nums &= nums - 1) {
+						if (grid.eliminate(unit[i], Long.numberOfTrailingZeros(nums) + 1)) {
+							++eliminated;
+						}
+					}
+				}
+			}
+			if (eliminated > 0) {
+				record(techniqueCounts, technique);
+			}
+			return eliminated > 0;
+		}
+		boolean progress = false;
+		for (int m = start; m <= count - ( k - depth ); m++) {
+			long next = union | grid.getCandidates(unit[members[m]]);
+			if (Long.bitCount(next) <= k) {
+				chosen[depth] = members[m];
+				progress |= nakedSubsets(grid, techniqueCounts, unit, members, count, chosen, depth + 1, m + 1, next,
+						technique);
+			}
+		}
+		return progress;
+	}
+
+	/**
+	 * Find every set of k numbers that are candidates in only the same k cells of a unit, and remove every other
+	 * candidate from those cells.
+	 *
+	 * @param grid            grid to change
+	 * @param techniqueCounts counts of each technique
+	 * @param k               the number of numbers in each set
+	 * @param technique       the technique recorded for each set that removes a candidate
+	 * @return true if a candidate was removed
+	 */
+	private boolean applyHiddenSubsets (CandidateGrid grid, EnumMap<Technique, Integer> techniqueCounts, int k,
+	                                    Technique technique) {
+		boolean progress = false;
+		int size = grid.getSize();
+		long[] positions = new long[size];
+		int[] members = new int[size];
+		int[] chosen = new int[k];
+		for (int[] unit : grid.getUnits()) {
+			// the cells of the unit, as bits of their index in the unit, where each number is a candidate
+			for (int num = 0; num < size; num++) {
+				positions[num] = 0;
+			}
+			for (int i = 0; i < unit.length; i++) {
+				for (long nums = grid.getCandidates(unit[i]); nums != 0; nums &= nums - 1) {
+					positions[Long.numberOfTrailingZeros(nums)] |= 1L << i;
+				}
+			}
+			// only numbers with between 2 and k candidate cells can be part of a set
+			int count = 0;
+			for (int num = 0; num < size; num++) {
+				int cellCount = Long.bitCount(positions[num]);
+				if (cellCount >= 2 && cellCount <= k) {
+					members[count++] = num;
+				}
+			}
+			if (count >= k
+					&& hiddenSubsets(grid, techniqueCounts, unit, positions, members, count, chosen, 0, 0, 0L, technique)) {
+				progress = true;
+				if (grid.hasContradiction()) {
+					return false;
+				}
+			}
+		}
+		return progress;
+	}
+
+	/**
+	 * Recursive step of {@link ConstraintPropagator#applyHiddenSubsets}, choosing the remaining numbers of a set.
+	 *
+	 * @param grid            grid to change
+	 * @param techniqueCounts counts of each technique
+	 * @param unit            cells of the unit
+	 * @param positions       the candidate cells of each number, as bits of their index in the unit
+	 * @param members         the numbers, less one, that may be part of a set
+	 * @param count           the number of entries in members
+	 * @param chosen          the numbers, less one, chosen so far
+	 * @param depth           the number of numbers chosen so far
+	 * @param start           the first entry of members that may be chosen next
+	 * @param union           the candidate cells of the numbers chosen so far
+	 * @param technique       the technique recorded for each set that removes a candidate
+	 * @return true if a candidate was removed
+	 */
+	private boolean hiddenSubsets (CandidateGrid grid, EnumMap<Technique, Integer> techniqueCounts, int[] unit,
+	                               long[] positions, int[] members, int count, int[] chosen, int depth, int start,
+	                               long union, Technique technique) {
+		int k = chosen.length;
+		if (depth == k) {
+			if (Long.bitCount(union) != k) {
+				return false;
+			}
+			long keep = 0;
+			for (int num : chosen) {
+				keep |= 1L << num;
+			}
+			int eliminated = 0;
+			for (long cells = union; cells != 0; cells &= cells - 1) {
+				int cell = unit[Long.numberOfTrailingZeros(cells)];
+				for (long nums = grid.getCandidates(cell) & ~keep; nums != 0; nums &= nums - 1) {
+					if (grid.eliminate(cell, Long.numberOfTrailingZeros(nums) + 1)) {
+						++eliminated;
+					}
+				}
+			}
+			if (eliminated > 0) {
+				record(techniqueCounts, technique);
+			}
+			return eliminated > 0;
+		}
+		boolean progress = false;
+		for (int m = start; m <= count - ( k - depth ); m++) {
+			long next = union | positions[members[m]];
+			if (Long.bitCount(next) <= k) {
+				chosen[depth] = members[m];
+				progress |= hiddenSubsets(grid, techniqueCounts, unit, positions, members, count, chosen, depth + 1,
+						m + 1, next, technique);
+			}
+		}
+		return progress;
+	}
+
+	/**
+	 * Find every set of k rows in which a number's candidates lie in only the same k columns, and remove the number
+	 * from the rest of those columns; then the same with rows and columns swapped.
+	 *
+	 * @param grid            grid to change
+	 * @param techniqueCounts counts of each technique
+	 * @param k               the number of rows or columns in each set
+	 * @param technique       the technique recorded for each set that removes a candidate
+	 * @return true if a candidate was removed
+	 */
+	private boolean applyFish (CandidateGrid grid, EnumMap<Technique, Integer> techniqueCounts, int k,
+	                           Technique technique) {
+		boolean progress = false;
+		int size = grid.getSize();
+		long[] lines = new long[size];
+		int[] members = new int[size];
+		int[] chosen = new int[k];
+		for (int num = 1; num <= size; num++) {
+			long bit = 1L << ( num - 1 );
+			for (int byRow = 0; byRow < 2; byRow++) {
+				// the crossing lines with num as a candidate, for each base line
+				int count = 0;
+				for (int base = 0; base < size; base++) {
+					lines[base] = 0;
+					for (int cross = 0; cross < size; cross++) {
+						int cell = ( byRow == 0 ) ? base * size + cross : cross * size + base;
+						if (( grid.getCandidates(cell) & bit ) != 0) {
+							lines[base] |= 1L << cross;
+						}
+					}
+					int crossCount = Long.bitCount(lines[base]);
+					if (crossCount >= 2 && crossCount <= k) {
+						members[count++] = base;
+					}
+				}
+				if (count >= k && fish(grid, techniqueCounts, num, byRow == 0, lines, members, count, chosen, 0, 0, 0L,
+						technique)) {
+					progress = true;
+					if (grid.hasContradiction()) {
+						return false;
+					}
+				}
+			}
+		}
+		return progress;
+	}
+
+	/**
+	 * Recursive step of {@link ConstraintPropagator#applyFish}, choosing the remaining base lines of a set.
+	 *
+	 * @param grid            grid to change
+	 * @param techniqueCounts counts of each technique
+	 * @param num             the number the set is for
+	 * @param byRow           true if the base lines are rows, false if they are columns
+	 * @param lines           the crossing lines with num as a candidate, for each base line
+	 * @param members         the base lines that may be part of a set
+	 * @param count           the number of entries in members
+	 * @param chosen          the base lines chosen so far
+	 * @param depth           the number of base lines chosen so far
+	 * @param start           the first entry of members that may be chosen next
+	 * @param union           the crossing lines of the base lines chosen so far
+	 * @param technique       the technique recorded for each set that removes a candidate
+	 * @return true if a candidate was removed
+	 */
+	private boolean fish (CandidateGrid grid, EnumMap<Technique, Integer> techniqueCounts, int num, boolean byRow,
+	                      long[] lines, int[] members, int count, int[] chosen, int depth, int start, long union,
+	                      Technique technique) {
+		int k = chosen.length;
+		if (depth == k) {
+			if (Long.bitCount(union) != k) {
+				return false;
+			}
+			int size = grid.getSize();
+			int eliminated = 0;
+			for (long crosses = union; crosses != 0; crosses &= crosses - 1) {
+				int cross = Long.numberOfTrailingZeros(crosses);
+				for (int base = 0; base < size; base++) {
+					int cell = byRow ? base * size + cross : cross * size + base;
+					if (!contains(chosen, base) && grid.eliminate(cell, num)) {
+						++eliminated;
+					}
+				}
+			}
+			if (eliminated > 0) {
+				record(techniqueCounts, technique);
+			}
+			return eliminated > 0;
+		}
+		boolean progress = false;
+		for (int m = start; m <= count - ( k - depth ); m++) {
+			long next = union | lines[members[m]];
+			if (Long.bitCount(next) <= k) {
+				chosen[depth] = members[m];
+				progress |= fish(grid, techniqueCounts, num, byRow, lines, members, count, chosen, depth + 1, m + 1,
+						next, technique);
+			}
+		}
+		return progress;
+	}
+
+	/**
+	 * Remove the given number from the candidates of every cell in the target unit that is not in the source unit.
+	 *
+	 * @param grid   grid to change
+	 * @param target unit to remove the number from
+	 * @param source unit whose cells keep the number
+	 * @param num    number to remove
+	 * @return the number of candidates removed
+	 */
+	private static int eliminateOutside (CandidateGrid grid, int[] target, int[] source, int num) {
+		int eliminated = 0;
+		for (int cell : target) {
+			if (!contains(source, cell) && grid.getNumber(cell) == 0 && grid.eliminate(cell, num)) {
+				++eliminated;
+			}
+		}
+		return eliminated;
+	}
+
+	/**
+	 * @param unit cells of a unit
+	 * @param cell cell index
+	 * @return true if the unit contains the cell
+	 */
+	private static boolean contains (int[] unit, int cell) {
+		for (int member : unit) {
+			if (member == cell) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
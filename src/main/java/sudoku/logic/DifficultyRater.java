@@ -0,0 +1,41 @@
+package sudoku.logic;
+
+import sudoku.puzzle.SudokuBoard;
+
+import java.util.EnumMap;
+
+/**
+ * Grades how hard a puzzle is for a human solver by solving it the way a human would: always using the simplest
+ * technique that makes progress, starting over from the simplest after every step. The rating is the hardest
+ * technique that was needed and a score summing the {@link Technique#getScore()} of every step taken.
+ * <p>
+ * Rating works directly on a {@link CandidateGrid} and keeps no state between puzzles, so one rater can grade
+ * puzzles from many threads at once.
+ * </p>
+ */
+public class DifficultyRater {
+	/** Added to the score of a puzzle that cannot be finished without guessing, more than any logical solve scores */
+	public static final int GUESSING_SCORE = 10_000;
+
+	/** Applies every technique the rater knows */
+	private final ConstraintPropagator propagator;
+
+	/** Create a new DifficultyRater using every technique. */
+	public DifficultyRater () {
+		Technique[] techniques = Technique.values();
+		this.propagator = new ConstraintPropagator(techniques[techniques.length - 1]);
+	}
+
+	/**
+	 * Rate the given SudokuBoard, which is not changed. Any numbers already in the board are treated as given.
+	 *
+	 * @param sudokuBoard SudokuBoard to rate
+	 * @return the hardest technique needed and the score of the puzzle
+	 */
+	public DifficultyRating rate (SudokuBoard sudokuBoard) {
+		CandidateGrid grid = new CandidateGrid(sudokuBoard);
+		EnumMap<Technique, Integer> techniqueCounts = new EnumMap<>(Technique.class);
+		propagator.propagate(grid, techniqueCounts);
+		return new DifficultyRating(techniqueCounts, !grid.isSolved());
+	}
+}
@@ -0,0 +1,79 @@
+package sudoku.logic;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/** Class holding how hard a puzzle is for a human solver, as graded by a {@link DifficultyRater}. */
+public class DifficultyRating {
+	/** The number of times each technique made progress */
+	private final Map<Technique, Integer> techniqueCounts;
+	/** The hardest technique used, or null if none was needed */
+	private final Technique hardestTechnique;
+	/** The total score of every technique used, plus the guessing score if guessing is needed */
+	private final int score;
+	/** Is guessing needed to finish the puzzle? */
+	private final boolean guessingNeeded;
+
+	/**
+	 * Create a new DifficultyRating instance.
+	 *
+	 * @param techniqueCounts the number of times each technique made progress
+	 * @param guessingNeeded  is guessing needed to finish the puzzle?
+	 */
+	DifficultyRating (EnumMap<Technique, Integer> techniqueCounts, boolean guessingNeeded) {
+		this.techniqueCounts = Collections.unmodifiableMap(techniqueCounts);
+		this.guessingNeeded = guessingNeeded;
+		Technique hardest = null;
+		int total = guessingNeeded ? DifficultyRater.GUESSING_SCORE : 0;
+		for (Map.Entry<Technique, Integer> entry : techniqueCounts.entrySet()) {
+			// entries are in technique order, so the last one is the hardest
+			hardest = entry.getKey();
+			total += entry.getKey().getScore() * entry.getValue();
+		}
+		this.hardestTechnique = hardest;
+		this.score = total;
+	}
+
+	/**
+	 * @return the number of times each technique made progress, only including techniques that fired
+	 */
+	public Map<Technique, Integer> getTechniqueCounts () {
+		return techniqueCounts;
+	}
+
+	/**
+	 * @return the hardest technique used, or empty if the puzzle was already solved
+	 */
+	public Optional<Technique> getHardestTechnique () {
+		return Optional.ofNullable(hardestTechnique);
+	}
+
+	/**
+	 * @return the total score of every technique used, plus {@link DifficultyRater#GUESSING_SCORE} if guessing is
+	 * needed, so a higher score is a harder puzzle
+	 */
+	public int getScore () {
+		return score;
+	}
+
+	/**
+	 * @return true if the puzzle cannot be finished with the rater's techniques, and guessing is needed, which is
+	 * also the case for a puzzle with no solution
+	 */
+	public boolean isGuessingNeeded () {
+		return guessingNeeded;
+	}
+
+	/**
+	 * Create a String representation of this rating, as the score and the hardest technique needed.
+	 *
+	 * @return String describing this rating, such as "412,HIDDEN_PAIR"
+	 */
+	@Override
+	public String toString () {
+		String hardest = guessingNeeded ? "GUESSING" : ( hardestTechnique == null ) ? "NONE" : hardestTechnique.name();
+		return score + "," + hardest;
+	}
+}
@@ -0,0 +1,64 @@
+package sudoku.logic;
+
+/** A number that can be placed in a cell without guessing, and the hardest technique needed to find it. */
+public class Hint {
+	/** Row of the cell */
+	private final int row;
+	/** Column of the cell */
+	private final int col;
+	/** Number that goes in the cell */
+	private final int number;
+	/** The hardest technique needed to find the number */
+	private final Technique technique;
+
+	/**
+	 * Create a new Hint instance.
+	 *
+	 * @param row       row of the cell
+	 * @param col       column of the cell
+	 * @param number    number that goes in the cell
+	 * @param technique the hardest technique needed to find the number
+	 */
+	Hint (int row, int col, int number, Technique technique) {
+		this.row = row;
+		this.col = col;
+		this.number = number;
+		this.technique = technique;
+	}
+
+	/**
+	 * @return row of the cell
+	 */
+	public int getRow () {
+		return row;
+	}
+
+	/**
+	 * @return column of the cell
+	 */
+	public int getCol () {
+		return col;
+	}
+
+	/**
+	 * @return number that goes in the cell
+	 */
+	public int getNumber () {
+		return number;
+	}
+
+	/**
+	 * @return the hardest technique needed to find the number
+	 */
+	public Technique getTechnique () {
+		return technique;
+	}
+
+	/**
+	 * @return the number and cell, counting rows and columns from 1, followed by the technique
+	 */
+	@Override
+	public String toString () {
+		return number + " at row " + ( row + 1 ) + ", column " + ( col + 1 ) + " (" + technique + ")";
+	}
+}
@@ -0,0 +1,163 @@
+package sudoku.logic;
+
+import sudoku.puzzle.SudokuBoard;
+
+import java.util.EnumMap;
+import java.util.Optional;
+
+/**
+ * Finds the next number a human could place on a board being played, one step at a time, instead of solving the
+ * whole puzzle. Singles are looked for first, and only when there are none are harder techniques used to rule out
+ * candidates until a single appears.
+ * <p>
+ * The engine keeps the candidates of the board it was created for and must be told of every change made to it.
+ * Placing a number updates the candidates in place, keeping every candidate ruled out by earlier hints, so asking
+ * for one hint after another only does the work of the new step. Removing a number cannot be undone on the
+ * candidates, so they are rebuilt from the board the next time a hint is asked for.
+ * </p>
+ */
+public class HintEngine {
+	/** The techniques that rule out candidates without placing a number, from simplest to hardest */
+	private static final Technique[] ELIMINATIONS = { Technique.POINTING, Technique.CLAIMING, Technique.NAKED_PAIR,
+			Technique.HIDDEN_PAIR, Technique.NAKED_TRIPLE, Technique.HIDDEN_TRIPLE, Technique.X_WING,
+			Technique.SWORDFISH };
+
+	/** The board being played, read again whenever the candidates are rebuilt */
+	private final SudokuBoard sudokuBoard;
+	/** Applies the elimination techniques */
+	private final ConstraintPropagator propagator;
+	/** The numbers and remaining candidates of the board, or null if they must be rebuilt */
+	private CandidateGrid grid;
+
+	/**
+	 * Create a new HintEngine for the given SudokuBoard.
+	 *
+	 * @param sudokuBoard the board being played, whose changes must be passed to this engine
+	 */
+	public HintEngine (SudokuBoard sudokuBoard) {
+		this.sudokuBoard = sudokuBoard;
+		this.propagator = new ConstraintPropagator(ELIMINATIONS[ELIMINATIONS.length - 1]);
+		this.grid = null;
+	}
+
+	/**
+	 * Record that the given number was placed on the board.
+	 *
+	 * @param row row of the cell
+	 * @param col column of the cell
+	 * @param num number placed
+	 */
+	public void place (int row, int col, int num) {
+		if (grid != null) {
+			int cell = row * grid.getSize() + col;
+			if (grid.getNumber(cell) == 0) {
+				grid.place(cell, num);
+			} else {
+				grid = null;
+			}
+		}
+	}
+
+	/**
+	 * Record that the number in the given cell was removed from the board.
+	 *
+	 * @param row row of the cell
+	 * @param col column of the cell
+	 */
+	public void remove (int row, int col) {
+		grid = null;
+	}
+
+	/**
+	 * Find the next number that can be placed without guessing. Any candidates ruled out along the way stay ruled
+	 * out for the next hint.
+	 *
+	 * @return the next number and the hardest technique needed to find it, or empty if the board is full, has a
+	 * contradiction, or cannot be continued without guessing
+	 */
+	public Optional<Hint> nextHint () {
+		if (grid == null) {
+			grid = new CandidateGrid(sudokuBoard);
+		}
+		EnumMap<Technique, Integer> techniqueCounts = new EnumMap<>(Technique.class);
+		Technique hardest = null;
+		while (!grid.hasContradiction()) {
+			Optional<Hint> single = findNakedSingle(hardest);
+			if (single.isEmpty()) {
+				single = findHiddenSingle(hardest);
+			}
+			if (single.isPresent() || grid.hasContradiction()) {
+				return single;
+			}
+			Technique progress = null;
+			for (int i = 0; i < ELIMINATIONS.length && progress == null; i++) {
+				if (propagator.apply(ELIMINATIONS[i], grid, techniqueCounts)) {
+					progress = ELIMINATIONS[i];
+				}
+			}
+			if (progress == null) {
+				return Optional.empty();
+			}
+			hardest = ( hardest == null || progress.compareTo(hardest) > 0 ) ? progress : hardest;
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * @return true if the board breaks a rule, or a cell or unit has no candidate left, as found by the last hint
+	 */
+	public boolean hasContradiction () {
+		return grid != null && grid.hasContradiction();
+	}
+
+	/**
+	 * Find the first empty cell with only one candidate left.
+	 *
+	 * @param hardest the hardest elimination used so far by this hint, or null if none
+	 * @return the single, or empty if there is none
+	 */
+	private Optional<Hint> findNakedSingle (Technique hardest) {
+		for (int cell = 0; cell < grid.getCells(); cell++) {
+			long candidates = grid.getCandidates(cell);
+			if (grid.getNumber(cell) == 0 && Long.bitCount(candidates) == 1) {
+				return Optional.of(hint(cell, Long.numberOfTrailingZeros(candidates) + 1, Technique.NAKED_SINGLE,
+						hardest));
+			}
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * Find the first number with only one candidate cell left in a row, column or region. A number with no cell
+	 * left in a unit that does not already contain it marks the grid as a contradiction.
+	 *
+	 * @param hardest the hardest elimination used so far by this hint, or null if none
+	 * @return the single, or empty if there is none
+	 */
+	private Optional<Hint> findHiddenSingle (Technique hardest) {
+		for (int[] unit : grid.getUnits()) {
+			long singles = ConstraintPropagator.findHiddenSingles(grid, unit);
+			if (grid.hasContradiction()) {
+				return Optional.empty();
+			}
+			if (singles != 0) {
+				long bit = Long.lowestOneBit(singles);
+				int cell = ConstraintPropagator.findCellWithCandidate(grid, unit, bit);
+				return Optional.of(hint(cell, Long.numberOfTrailingZeros(bit) + 1, Technique.HIDDEN_SINGLE, hardest));
+			}
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * @param cell    cell index in row-major order
+	 * @param num     number that goes in the cell
+	 * @param single  the single that places the number
+	 * @param hardest the hardest elimination used so far by this hint, or null if none
+	 * @return a hint naming the hardest of the two techniques
+	 */
+	private Hint hint (int cell, int num, Technique single, Technique hardest) {
+		int size = grid.getSize();
+		return new Hint(cell / size, cell % size, num, ( hardest == null ) ? single : hardest);
+	}
+}
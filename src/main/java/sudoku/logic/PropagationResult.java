@@ -0,0 +1,79 @@
+package sudoku.logic;
+
+import sudoku.puzzle.SudokuBoard;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/** Class holding the board left by constraint propagation, and which techniques were used to reach it. */
+public class PropagationResult {
+	/** The board with every number propagation was able to place */
+	private final SudokuBoard sudokuBoard;
+	/** The number of times each technique made progress */
+	private final Map<Technique, Integer> techniqueCounts;
+	/** Did propagation fill every cell? */
+	private final boolean solved;
+	/** Did propagation prove the board has no solution? */
+	private final boolean contradiction;
+
+	/**
+	 * Create a new PropagationResult instance.
+	 *
+	 * @param grid            the grid left after propagation
+	 * @param techniqueCounts the number of times each technique made progress
+	 */
+	PropagationResult (CandidateGrid grid, EnumMap<Technique, Integer> techniqueCounts) {
+		this.sudokuBoard = grid.toSudokuBoard();
+		this.techniqueCounts = Collections.unmodifiableMap(techniqueCounts);
+		this.solved = grid.isSolved();
+		this.contradiction = grid.hasContradiction();
+	}
+
+	/**
+	 * @return a SudokuBoard with every number placed by propagation, and the original given numbers
+	 */
+	public SudokuBoard getSudokuBoard () {
+		return sudokuBoard;
+	}
+
+	/**
+	 * @return the number of times each technique made progress, only including techniques that fired
+	 */
+	public Map<Technique, Integer> getTechniqueCounts () {
+		return techniqueCounts;
+	}
+
+	/**
+	 * @return the techniques that made progress
+	 */
+	public Set<Technique> getTechniquesUsed () {
+		return techniqueCounts.keySet();
+	}
+
+	/**
+	 * @return true if propagation filled every cell without a contradiction
+	 */
+	public boolean isSolved () {
+		return solved;
+	}
+
+	/**
+	 * @return true if propagation proved the board has no solution
+	 */
+	public boolean isContradiction () {
+		return contradiction;
+	}
+
+	/**
+	 * Create a String representation of this result listing the outcome and the techniques used.
+	 *
+	 * @return String describing this result
+	 */
+	@Override
+	public String toString () {
+		String outcome = contradiction ? "contradiction" : ( solved ? "solved" : "unsolved" );
+		return outcome + " " + techniqueCounts;
+	}
+}
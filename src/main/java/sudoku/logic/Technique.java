@@ -0,0 +1,60 @@
+package sudoku.logic;
+
+/**
+ * The logical techniques used to fill in or rule out numbers without guessing, from simplest to hardest.
+ * Each technique has a score, the difficulty a human solver would give one use of it.
+ */
+public enum Technique {
+	/** A cell has only one candidate left, so it must be that number */
+	NAKED_SINGLE(4),
+	/** A number has only one cell left in a row, column or region, so it must go there */
+	HIDDEN_SINGLE(14),
+	/**
+	 * Every candidate cell for a number in a region lies in one row or column, so the number can be removed
+	 * from the rest of that row or column
+	 */
+	POINTING(50),
+	/**
+	 * Every candidate cell for a number in a row or column lies in one region, so the number can be removed
+	 * from the rest of that region
+	 */
+	CLAIMING(50),
+	/** Two cells of a unit have the same two candidates, so those numbers can be removed from the rest of the unit */
+	NAKED_PAIR(60),
+	/** Two numbers are candidates in the same two cells of a unit only, so those cells can have no other number */
+	HIDDEN_PAIR(70),
+	/**
+	 * Three cells of a unit have only three candidates between them, so those numbers can be removed from the rest
+	 * of the unit
+	 */
+	NAKED_TRIPLE(80),
+	/** Three numbers are candidates in the same three cells of a unit only, so those cells can have no other number */
+	HIDDEN_TRIPLE(100),
+	/**
+	 * A number's candidates in two rows lie in the same two columns, so the number can be removed from the rest of
+	 * those columns, or the same with rows and columns swapped
+	 */
+	X_WING(140),
+	/**
+	 * A number's candidates in three rows lie in the same three columns, so the number can be removed from the rest
+	 * of those columns, or the same with rows and columns swapped
+	 */
+	SWORDFISH(150);
+
+	/** The difficulty of one use of this technique */
+	private final int score;
+
+	/**
+	 * @param score the difficulty of one use of this technique
+	 */
+	Technique (int score) {
+		this.score = score;
+	}
+
+	/**
+	 * @return the difficulty of one use of this technique
+	 */
+	public int getScore () {
+		return score;
+	}
+}
@@ -0,0 +1,97 @@
+package sudoku.puzzle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Constants and helpers of the packed binary puzzle format, read by {@link BinaryPuzzleReader} and written by
+ * {@link BinaryPuzzleWriter}. A file starts with a 16 byte little-endian header:
+ *
+ * <ol>
+ *     <li>the magic bytes "SDKB"</li>
+ *     <li>one byte format version, currently 1</li>
+ *     <li>one byte board size, such as 9 for a 9x9 board</li>
+ *     <li>two reserved bytes, always 0</li>
+ *     <li>an eight byte record count</li>
+ * </ol>
+ * <p>
+ * The header is followed by one fixed-length record per puzzle. Each record packs the number of every cell in
+ * row-major order, 0 for an empty cell, using the fewest bits that hold the board size: 4 bits for a 9x9 board,
+ * so a record is 41 bytes. Bits are filled from the lowest bit of each byte, and the last byte is padded with 0s.
+ * </p>
+ */
+final class BinaryPuzzleFormat {
+	/** The magic bytes at the start of every file, "SDKB" read as a little-endian int */
+	static final int MAGIC = 'S' | 'D' << 8 | 'K' << 16 | 'B' << 24;
+	/** The current format version */
+	static final byte VERSION = 1;
+	/** The length of the header in bytes */
+	static final int HEADER_LENGTH = 16;
+	/** The offset of the record count within the header */
+	static final int COUNT_OFFSET = 8;
+
+	private BinaryPuzzleFormat () {
+	}
+
+	/**
+	 * @param size number of rows and columns in the board
+	 * @return the number of bits used for each cell
+	 */
+	static int bitsPerCell (int size) {
+		return 32 - Integer.numberOfLeadingZeros(size);
+	}
+
+	/**
+	 * @param size number of rows and columns in the board
+	 * @return the number of bytes of each record
+	 */
+	static int recordLength (int size) {
+		return ( size * size * bitsPerCell(size) + 7 ) / 8;
+	}
+
+	/**
+	 * Create the header of a file.
+	 *
+	 * @param size  number of rows and columns of every puzzle
+	 * @param count number of records
+	 * @return the header, ready to be written
+	 */
+	static ByteBuffer header (int size, long count) {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC).put(VERSION).put((byte) size).putShort((short) 0).putLong(count);
+		return header.flip();
+	}
+
+	/**
+	 * Check the header of a file and read its board size.
+	 *
+	 * @param header the first {@link BinaryPuzzleFormat#HEADER_LENGTH} bytes of the file
+	 * @return the board size
+	 * @throws IOException if the header is not a binary puzzle header
+	 */
+	static int readSize (ByteBuffer header) throws IOException {
+		header.order(ByteOrder.LITTLE_ENDIAN);
+		if (header.remaining() < HEADER_LENGTH || header.getInt(0) != MAGIC) {
+			throw new IOException("Not a binary puzzle file");
+		}
+		if (header.get(4) != VERSION) {
+			throw new IOException("Unsupported binary puzzle version " + header.get(4));
+		}
+		int size = header.get(5) & 0xFF;
+		try {
+			SudokuBoard.boxSizeOf(size);
+		} catch (IllegalArgumentException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+		return size;
+	}
+
+	/**
+	 * @param header the first {@link BinaryPuzzleFormat#HEADER_LENGTH} bytes of the file
+	 * @return the record count
+	 */
+	static long readCount (ByteBuffer header) {
+		return header.order(ByteOrder.LITTLE_ENDIAN).getLong(COUNT_OFFSET);
+	}
+}
@@ -0,0 +1,155 @@
+package sudoku.puzzle;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads puzzles from a file in the packed binary format described by {@link BinaryPuzzleFormat}. The file is
+ * memory-mapped one segment of whole records at a time and each record is unpacked straight into a
+ * CompactSudokuBoard. Any puzzle can be read directly by its index. A reader is not safe to use from several
+ * threads at once.
+ */
+public class BinaryPuzzleReader implements Closeable {
+	/** The file being read */
+	private final FileChannel channel;
+	/** The heuristic given to every board read */
+	private final SearchHeuristic searchHeuristic;
+	/** The number of rows and columns of each puzzle */
+	private final int size;
+	/** The number of bits used for each cell */
+	private final int bitsPerCell;
+	/** The number of bytes of each record */
+	private final int recordLength;
+	/** The number of records in the file */
+	private final long records;
+	/** The number of whole records mapped at once */
+	private final long recordsPerSegment;
+
+	/** The currently mapped segment of the file */
+	private MappedByteBuffer segment;
+	/** The index of the currently mapped segment, or -1 if none */
+	private long segmentIndex;
+	/** The index of the record {@link BinaryPuzzleReader#next()} reads */
+	private long nextRecord;
+
+	/**
+	 * Open a binary puzzle file and read its header.
+	 *
+	 * @param file            binary puzzle file
+	 * @param searchHeuristic heuristic given to every board read
+	 * @throws IOException if the file cannot be read, or is not a complete binary puzzle file
+	 */
+	public BinaryPuzzleReader (Path file, SearchHeuristic searchHeuristic) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		this.searchHeuristic = searchHeuristic;
+		this.segmentIndex = -1;
+		this.nextRecord = 0;
+		try {
+			ByteBuffer header = ByteBuffer.allocate(BinaryPuzzleFormat.HEADER_LENGTH);
+			while (header.hasRemaining() && channel.read(header) != -1) {
+				// keep reading until the header is complete or the file ends
+			}
+			header.flip();
+			this.size = BinaryPuzzleFormat.readSize(header);
+			this.bitsPerCell = BinaryPuzzleFormat.bitsPerCell(size);
+			this.recordLength = BinaryPuzzleFormat.recordLength(size);
+			this.records = BinaryPuzzleFormat.readCount(header);
+			if (records < 0 || channel.size() < BinaryPuzzleFormat.HEADER_LENGTH + records * recordLength) {
+				throw new IOException("Binary puzzle file " + file + " is shorter than its " + records + " records");
+			}
+			this.recordsPerSegment = Integer.MAX_VALUE / recordLength;
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the number of rows and columns of each puzzle
+	 */
+	public int getBoardSize () {
+		return size;
+	}
+
+	/**
+	 * @return the number of puzzles in the file
+	 */
+	public long size () {
+		return records;
+	}
+
+	/**
+	 * @return true if {@link BinaryPuzzleReader#next()} has a puzzle left to read
+	 */
+	public boolean hasNext () {
+		return nextRecord < records;
+	}
+
+	/**
+	 * Read the next puzzle in the file.
+	 *
+	 * @return the next puzzle, or null once every puzzle has been read
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public CompactSudokuBoard next () throws IOException {
+		return hasNext() ? get(nextRecord++) : null;
+	}
+
+	/**
+	 * Read the puzzle with the given index, without changing which puzzle {@link BinaryPuzzleReader#next()} reads.
+	 *
+	 * @param index index of the puzzle, starting at 0
+	 * @return the puzzle, with every number marked as given
+	 * @throws IOException              if the file cannot be mapped
+	 * @throws IllegalArgumentException if the record holds a number larger than the board size
+	 */
+	public CompactSudokuBoard get (long index) throws IOException {
+		if (index < 0 || index >= records) {
+			throw new IndexOutOfBoundsException("Puzzle " + index + " of " + records);
+		}
+		long segmentOfRecord = index / recordsPerSegment;
+		if (segmentOfRecord != segmentIndex) {
+			long first = segmentOfRecord * recordsPerSegment;
+			long length = Math.min(records - first, recordsPerSegment) * recordLength;
+			segment = channel.map(FileChannel.MapMode.READ_ONLY,
+					BinaryPuzzleFormat.HEADER_LENGTH + first * recordLength, length);
+			segmentIndex = segmentOfRecord;
+		}
+		int offset = (int) ( ( index % recordsPerSegment ) * recordLength );
+		CompactSudokuBoard board = new CompactSudokuBoard(size, searchHeuristic);
+		int mask = ( 1 << bitsPerCell ) - 1;
+		long bits = 0;
+		int bitCount = 0;
+		for (int cell = 0; cell < size * size; cell++) {
+			while (bitCount < bitsPerCell) {
+				bits |= (long) ( segment.get(offset++) & 0xFF ) << bitCount;
+				bitCount += 8;
+			}
+			int num = (int) bits & mask;
+			bits >>>= bitsPerCell;
+			bitCount -= bitsPerCell;
+			if (num > size) {
+				throw new IllegalArgumentException("Number " + num + " out of range in puzzle " + index);
+			}
+			if (num != 0) {
+				board.setGivenNumber(cell, num);
+			}
+		}
+		return board;
+	}
+
+	/**
+	 * Close the file. Mapped segments stay valid until they are garbage collected.
+	 *
+	 * @throws IOException if the file cannot be closed
+	 */
+	@Override
+	public void close () throws IOException {
+		channel.close();
+	}
+}
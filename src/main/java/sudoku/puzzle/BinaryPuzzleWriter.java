@@ -0,0 +1,119 @@
+package sudoku.puzzle;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes puzzles of one board size to a file in the packed binary format described by {@link BinaryPuzzleFormat}.
+ * The record count in the header is filled in when the writer is closed.
+ */
+public class BinaryPuzzleWriter implements Closeable {
+	/** Number of records buffered before they are written to the file */
+	private static final int BUFFERED_RECORDS = 4096;
+
+	/** The file being written */
+	private final FileChannel channel;
+	/** The number of rows and columns of every puzzle */
+	private final int size;
+	/** The number of bits used for each cell */
+	private final int bitsPerCell;
+	/** Records waiting to be written */
+	private final ByteBuffer buffer;
+	/** The number of records written so far */
+	private long count;
+
+	/**
+	 * Create a new file, replacing any existing one, and write its header.
+	 *
+	 * @param file file to write
+	 * @param size number of rows and columns of every puzzle
+	 * @throws IOException if the file cannot be written
+	 */
+	public BinaryPuzzleWriter (Path file, int size) throws IOException {
+		SudokuBoard.boxSizeOf(size);
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE);
+		this.size = size;
+		this.bitsPerCell = BinaryPuzzleFormat.bitsPerCell(size);
+		this.buffer = ByteBuffer.allocate(BUFFERED_RECORDS * BinaryPuzzleFormat.recordLength(size));
+		this.count = 0;
+		ByteBuffer header = BinaryPuzzleFormat.header(size, 0);
+		while (header.hasRemaining()) {
+			channel.write(header);
+		}
+	}
+
+	/**
+	 * Append a puzzle to the file.
+	 *
+	 * @param sudokuBoard puzzle to write
+	 * @throws IOException              if the file cannot be written
+	 * @throws IllegalArgumentException if the puzzle is not of this writer's size
+	 */
+	public void write (SudokuBoard sudokuBoard) throws IOException {
+		if (sudokuBoard.getSize() != size) {
+			throw new IllegalArgumentException("Expected a " + size + "x" + size + " puzzle, not "
+					+ sudokuBoard.getSize() + "x" + sudokuBoard.getSize());
+		}
+		if (buffer.remaining() < BinaryPuzzleFormat.recordLength(size)) {
+			flush();
+		}
+		long bits = 0;
+		int bitCount = 0;
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				bits |= (long) sudokuBoard.getSudokuCell(row, col).getNumber() << bitCount;
+				bitCount += bitsPerCell;
+				while (bitCount >= 8) {
+					buffer.put((byte) bits);
+					bits >>>= 8;
+					bitCount -= 8;
+				}
+			}
+		}
+		if (bitCount > 0) {
+			buffer.put((byte) bits);
+		}
+		++count;
+	}
+
+	/**
+	 * @return the number of puzzles written so far
+	 */
+	public long getCount () {
+		return count;
+	}
+
+	/**
+	 * Write every buffered record to the file.
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	private void flush () throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Write the remaining records and the record count, then close the file.
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	@Override
+	public void close () throws IOException {
+		try {
+			flush();
+			ByteBuffer header = BinaryPuzzleFormat.header(size, count);
+			channel.write(header, 0);
+		} finally {
+			channel.close();
+		}
+	}
+}
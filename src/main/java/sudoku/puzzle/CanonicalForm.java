@@ -0,0 +1,502 @@
+package sudoku.puzzle;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The canonical form of a Sudoku puzzle: one representative shared by every puzzle that is equivalent to it under
+ * the symmetries of the board. These are transposing the board, reordering its bands (groups of rows sharing
+ * regions) and stacks (groups of columns sharing regions), reordering the rows within a band and the columns within
+ * a stack, and relabelling the numbers.
+ * <p>
+ * The canonical form is the transformed board whose numbers, read row by row with empty cells as 0 and every number
+ * relabelled in order of first appearance, are lexicographically smallest. It is found row by row: every
+ * transposition, column order and choice of rows so far that gives the smallest rows so far is kept, and each is
+ * extended by every row it may be followed by, so only orderings that can still be smallest are explored. States that
+ * would lead to the same rows, such as column orders that only swap empty columns, are kept once.
+ * </p>
+ * <p>
+ * A CanonicalForm also remembers the transformation from the original puzzle, so a board in canonical form, such as
+ * a solution, can be mapped back to the original puzzle's layout and numbers. Only boards up to 9x9 are supported,
+ * since every ordering of the columns is tried.
+ * </p>
+ */
+public class CanonicalForm {
+	/** The largest board size supported */
+	public static final int MAX_SIZE = 9;
+
+	/** Every column order of each region size seen so far, built once per size */
+	private static final Map<Integer, List<int[]>> COLUMN_ORDERS = new ConcurrentHashMap<>();
+
+	/** The canonical numbers read row by row, one character per cell, where '0' is an empty cell */
+	private final String key;
+	/** The number of rows and columns in the board */
+	private final int size;
+	/** Is the original board transposed before its rows and columns are reordered? */
+	private final boolean transposed;
+	/** The row of the (transposed) original board at each row of the canonical board */
+	private final int[] rowOrder;
+	/** The column of the (transposed) original board at each column of the canonical board */
+	private final int[] colOrder;
+	/** The canonical number of each original number, where 0 maps to 0 */
+	private final int[] labels;
+
+	/**
+	 * Create a new CanonicalForm instance.
+	 *
+	 * @param key        the canonical numbers read row by row
+	 * @param transposed is the original board transposed first?
+	 * @param rowOrder   the original row at each canonical row
+	 * @param colOrder   the original column at each canonical column
+	 * @param labels     the canonical number of each original number
+	 */
+	private CanonicalForm (String key, boolean transposed, int[] rowOrder, int[] colOrder, int[] labels) {
+		this.key = key;
+		this.size = rowOrder.length;
+		this.transposed = transposed;
+		this.rowOrder = rowOrder;
+		this.colOrder = colOrder;
+		this.labels = labels;
+	}
+
+	/**
+	 * Find the canonical form of the numbers in the given SudokuBoard.
+	 *
+	 * @param sudokuBoard SudokuBoard to canonicalize, which is not changed
+	 * @return the canonical form, and the transformation to it
+	 * @throws IllegalArgumentException if the board is larger than {@link CanonicalForm#MAX_SIZE}
+	 */
+	public static CanonicalForm of (SudokuBoard sudokuBoard) {
+		int size = sudokuBoard.getSize();
+		if (size > MAX_SIZE) {
+			throw new IllegalArgumentException("Cannot canonicalize a " + size + "x" + size + " board");
+		}
+		int[][] numbers = new int[size][size];
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				numbers[row][col] = sudokuBoard.getSudokuCell(row, col).getNumber();
+			}
+		}
+		return of(numbers, sudokuBoard.getBoxSize());
+	}
+
+	/**
+	 * Find the canonical form of a grid of numbers.
+	 *
+	 * @param numbers NxN grid of numbers, where 0 is an empty cell
+	 * @param boxSize number of rows and columns in each region
+	 * @return the canonical form, and the transformation to it
+	 */
+	private static CanonicalForm of (int[][] numbers, int boxSize) {
+		int size = numbers.length;
+		int[][] transpose = new int[size][size];
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				transpose[col][row] = numbers[row][col];
+			}
+		}
+		List<int[]> colOrders = COLUMN_ORDERS.computeIfAbsent(boxSize, CanonicalForm::permutations);
+
+		// every state that gives the smallest canonical rows so far, once per signature
+		List<State> best = new ArrayList<>();
+		Set<Long> columnSignatures = new HashSet<>();
+		int[] noRows = new int[size];
+		int[] noLabels = new int[size + 1];
+		for (int t = 0; t < 2; t++) {
+			int[][] grid = ( t == 1 ) ? transpose : numbers;
+			// column orders that only reorder identical columns lead to the same rows
+			int[] columnClass = columnClasses(grid);
+			for (int[] colOrder : colOrders) {
+				long signature = t;
+				for (int col : colOrder) {
+					signature = ( signature << 4 ) | columnClass[col];
+				}
+				if (columnSignatures.add(signature)) {
+					best.add(new State(t == 1, grid, colOrder, noRows, 0, noLabels, 0));
+				}
+			}
+		}
+		// when no number repeats within a row, a first row is relabelled 1, 2, 3... in order, so only the layout of
+		// its empty cells matters, and the smallest first rows are those with the smallest mask of non-empty cells
+		int[] firstMasks = null;
+		int firstMask = Integer.MAX_VALUE;
+		if (hasDistinctRows(numbers) && hasDistinctRows(transpose)) {
+			firstMasks = new int[best.size() * size];
+			for (int i = 0; i < best.size(); i++) {
+				for (int candidate = 0; candidate < size; candidate++) {
+					firstMasks[i * size + candidate] = best.get(i).mask(candidate);
+					firstMask = Math.min(firstMask, firstMasks[i * size + candidate]);
+				}
+			}
+		}
+		Set<String> signatures = new HashSet<>();
+		int[] bestRow = new int[size];
+		int[] row = new int[size];
+		int[] labels = new int[size + 1];
+		for (int position = 0; position < size; position++) {
+			// find the smallest next row first, so only the states giving it are created
+			bestRow[0] = Integer.MAX_VALUE;
+			for (int i = 0; i < best.size(); i++) {
+				State state = best.get(i);
+				for (int candidate = 0; candidate < size; candidate++) {
+					if (state.mayFollow(candidate, position, boxSize)
+							&& ( position > 0 || firstMasks == null || firstMasks[i * size + candidate] == firstMask )) {
+						state.evaluate(candidate, labels, row);
+						if (compare(row, bestRow) < 0) {
+							System.arraycopy(row, 0, bestRow, 0, size);
+						}
+					}
+				}
+			}
+			List<State> next = new ArrayList<>();
+			signatures.clear();
+			for (int i = 0; i < best.size(); i++) {
+				State state = best.get(i);
+				for (int candidate = 0; candidate < size; candidate++) {
+					if (state.mayFollow(candidate, position, boxSize)
+							&& ( position > 0 || firstMasks == null || firstMasks[i * size + candidate] == firstMask )) {
+						int nextLabel = state.evaluate(candidate, labels, row);
+						if (compare(row, bestRow) == 0) {
+							State extended = state.extend(candidate, position, labels.clone(), nextLabel);
+							if (signatures.add(extended.signature(boxSize))) {
+								next.add(extended);
+							}
+						}
+					}
+				}
+			}
+			best = next;
+		}
+
+		State canonical = best.get(0);
+		labels = canonical.labels;
+		// numbers that never appear take the unused canonical numbers, so the relabelling is a bijection
+		int nextLabel = canonical.nextLabel;
+		for (int num = 1; num <= size; num++) {
+			if (labels[num] == 0) {
+				labels[num] = ++nextLabel;
+			}
+		}
+		StringBuilder key = new StringBuilder(size * size);
+		for (int position = 0; position < size; position++) {
+			for (int col = 0; col < size; col++) {
+				key.append((char) ( '0' + labels[canonical.grid[canonical.rowOrder[position]][canonical.colOrder[col]]] ));
+			}
+		}
+		return new CanonicalForm(key.toString(), canonical.transposed, canonical.rowOrder, canonical.colOrder, labels);
+	}
+
+	/**
+	 * @param grid NxN grid of numbers
+	 * @return true if no number repeats within any row of the grid
+	 */
+	private static boolean hasDistinctRows (int[][] grid) {
+		for (int[] row : grid) {
+			int seen = 0;
+			for (int num : row) {
+				if (num != 0 && ( seen & ( 1 << num ) ) != 0) {
+					return false;
+				}
+				seen |= 1 << num;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Give every column of a grid a class, equal for columns with the same numbers in every row.
+	 *
+	 * @param grid NxN grid of numbers
+	 * @return the class of each column, the index of the first column equal to it
+	 */
+	private static int[] columnClasses (int[][] grid) {
+		int size = grid.length;
+		int[] columnClass = new int[size];
+		for (int col = 0; col < size; col++) {
+			columnClass[col] = col;
+			for (int other = 0; other < col; other++) {
+				boolean equal = true;
+				for (int row = 0; row < size && equal; row++) {
+					equal = grid[row][col] == grid[row][other];
+				}
+				if (equal) {
+					columnClass[col] = other;
+					break;
+				}
+			}
+		}
+		return columnClass;
+	}
+
+	/**
+	 * Compare two rows lexicographically.
+	 *
+	 * @param row   a row
+	 * @param other another row of the same length
+	 * @return negative, zero or positive as row is smaller than, equal to, or larger than other
+	 */
+	private static int compare (int[] row, int[] other) {
+		for (int i = 0; i < row.length; i++) {
+			if (row[i] != other[i]) {
+				return Integer.compare(row[i], other[i]);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * List every column order that keeps the columns of each stack together.
+	 *
+	 * @param boxSize number of columns in each stack
+	 * @return each order, as the original column at each new column
+	 */
+	private static List<int[]> permutations (int boxSize) {
+		List<int[]> small = new ArrayList<>();
+		permute(new int[boxSize], 0, 0, small);
+		List<int[]> orders = new ArrayList<>();
+		int[] order = new int[boxSize * boxSize];
+		for (int[] stacks : small) {
+			collectColumns(small, order, stacks, 0, orders);
+		}
+		return orders;
+	}
+
+	/**
+	 * Choose the column order within each stack, in the chosen stack order.
+	 *
+	 * @param small  every permutation of boxSize items
+	 * @param order  the column order being built
+	 * @param stacks the stack order
+	 * @param stack  the number of stacks whose column order has been chosen
+	 * @param orders where each complete column order is added
+	 */
+	private static void collectColumns (List<int[]> small, int[] order, int[] stacks, int stack, List<int[]> orders) {
+		int boxSize = stacks.length;
+		if (stack == boxSize) {
+			orders.add(order.clone());
+			return;
+		}
+		for (int[] within : small) {
+			for (int i = 0; i < boxSize; i++) {
+				order[stack * boxSize + i] = stacks[stack] * boxSize + within[i];
+			}
+			collectColumns(small, order, stacks, stack + 1, orders);
+		}
+	}
+
+	/**
+	 * Add every permutation of the numbers [0, values.length - 1] to the given list.
+	 *
+	 * @param values the permutation being built
+	 * @param depth  the number of entries chosen so far
+	 * @param used   mask of the numbers chosen so far
+	 * @param result where each permutation is added
+	 */
+	private static void permute (int[] values, int depth, int used, List<int[]> result) {
+		if (depth == values.length) {
+			result.add(values.clone());
+			return;
+		}
+		for (int i = 0; i < values.length; i++) {
+			if (( used & ( 1 << i ) ) == 0) {
+				values[depth] = i;
+				permute(values, depth + 1, used | ( 1 << i ), result);
+			}
+		}
+	}
+
+	/**
+	 * @return the canonical numbers read row by row, one character per cell, where '0' is an empty cell; equal for
+	 * every equivalent puzzle
+	 */
+	public String getKey () {
+		return key;
+	}
+
+	/**
+	 * Transform a grid of numbers laid out like the original puzzle into canonical form.
+	 *
+	 * @param numbers NxN grid of numbers laid out like the original puzzle, which is not changed
+	 * @return the numbers in canonical form
+	 */
+	public int[][] toCanonical (int[][] numbers) {
+		int[][] canonical = new int[size][size];
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				int original = transposed ? numbers[colOrder[col]][rowOrder[row]] : numbers[rowOrder[row]][colOrder[col]];
+				canonical[row][col] = labels[original];
+			}
+		}
+		return canonical;
+	}
+
+	/**
+	 * Transform a grid of numbers in canonical form back to the layout and numbers of the original puzzle.
+	 *
+	 * @param canonical NxN grid of numbers in canonical form, which is not changed
+	 * @return the numbers laid out like the original puzzle
+	 */
+	public int[][] fromCanonical (int[][] canonical) {
+		int[] originalNumbers = new int[size + 1];
+		for (int num = 0; num <= size; num++) {
+			originalNumbers[labels[num]] = num;
+		}
+		int[][] numbers = new int[size][size];
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				int original = originalNumbers[canonical[row][col]];
+				if (transposed) {
+					numbers[colOrder[col]][rowOrder[row]] = original;
+				} else {
+					numbers[rowOrder[row]][colOrder[col]] = original;
+				}
+			}
+		}
+		return numbers;
+	}
+
+	/**
+	 * @return the canonical key
+	 */
+	@Override
+	public String toString () {
+		return key;
+	}
+
+	/** A partial canonical form: a transposition, a column order, the rows chosen so far, and their relabelling. */
+	private static class State {
+		/** Is the original board transposed? */
+		private final boolean transposed;
+		/** The original board, transposed if needed */
+		private final int[][] grid;
+		/** The original column at each canonical column */
+		private final int[] colOrder;
+		/** The original row at each canonical row chosen so far */
+		private final int[] rowOrder;
+		/** Mask of the original rows chosen so far */
+		private final int usedRows;
+		/** The canonical number given to each original number so far, or 0 if none yet */
+		private final int[] labels;
+		/** The last canonical number given */
+		private final int nextLabel;
+
+		/**
+		 * Create a state.
+		 *
+		 * @param transposed is the original board transposed?
+		 * @param grid       the original board, transposed if needed
+		 * @param colOrder   the original column at each canonical column
+		 * @param rowOrder   the original row at each canonical row chosen so far
+		 * @param usedRows   mask of the original rows chosen so far
+		 * @param labels     the canonical number given to each original number so far
+		 * @param nextLabel  the last canonical number given
+		 */
+		private State (boolean transposed, int[][] grid, int[] colOrder, int[] rowOrder, int usedRows, int[] labels,
+		               int nextLabel) {
+			this.transposed = transposed;
+			this.grid = grid;
+			this.colOrder = colOrder;
+			this.rowOrder = rowOrder;
+			this.usedRows = usedRows;
+			this.labels = labels;
+			this.nextLabel = nextLabel;
+		}
+
+		/**
+		 * May the given original row be placed at the given canonical row? The first row of a band may come from
+		 * any band not used yet; every other row must come from the same band as the row before it.
+		 *
+		 * @param row      an original row
+		 * @param position the canonical row being chosen
+		 * @param boxSize  number of rows in each band
+		 * @return true if the row may be placed there
+		 */
+		private boolean mayFollow (int row, int position, int boxSize) {
+			if (( usedRows & ( 1 << row ) ) != 0) {
+				return false;
+			}
+			if (position % boxSize == 0) {
+				return true;
+			}
+			return row / boxSize == rowOrder[position - 1] / boxSize;
+		}
+
+		/**
+		 * @param row an original row
+		 * @return a mask of the row's non-empty cells in column order, where the first column is the highest bit
+		 */
+		private int mask (int row) {
+			int mask = 0;
+			for (int col : colOrder) {
+				mask = ( mask << 1 ) | ( ( grid[row][col] != 0 ) ? 1 : 0 );
+			}
+			return mask;
+		}
+
+		/**
+		 * Compute the canonical row the given original row would become if it were chosen next.
+		 *
+		 * @param row    an original row
+		 * @param labels filled with the relabelling after the row
+		 * @param result filled with the canonical row
+		 * @return the last canonical number given after the row
+		 */
+		private int evaluate (int row, int[] labels, int[] result) {
+			System.arraycopy(this.labels, 0, labels, 0, labels.length);
+			int last = nextLabel;
+			for (int col = 0; col < result.length; col++) {
+				int num = grid[row][colOrder[col]];
+				if (num != 0 && labels[num] == 0) {
+					labels[num] = ++last;
+				}
+				result[col] = labels[num];
+			}
+			return last;
+		}
+
+		/**
+		 * Describe everything that decides the rows this state can still lead to: the relabelling so far, the band
+		 * being filled, and the numbers of every row not chosen yet, in column order. States with equal signatures
+		 * lead to the same rows, so only one of them needs to be explored.
+		 *
+		 * @param boxSize number of rows in each band
+		 * @return the signature of this state
+		 */
+		private String signature (int boxSize) {
+			int size = grid.length;
+			int position = Integer.bitCount(usedRows);
+			StringBuilder signature = new StringBuilder(( size + 1 ) * ( size + 1 ));
+			for (int num = 1; num <= size; num++) {
+				signature.append((char) ( '0' + labels[num] ));
+			}
+			// the band being filled, if its first row has been chosen but not its last
+			signature.append(( position % boxSize == 0 ) ? '-' : (char) ( '0' + rowOrder[position - 1] / boxSize ));
+			for (int row = 0; row < size; row++) {
+				signature.append('|');
+				if (( usedRows & ( 1 << row ) ) == 0) {
+					for (int col = 0; col < size; col++) {
+						signature.append((char) ( '0' + grid[row][colOrder[col]] ));
+					}
+				}
+			}
+			return signature.toString();
+		}
+
+		/**
+		 * @param row       the original row placed at the canonical row
+		 * @param position  the canonical row
+		 * @param labels    the relabelling after the row
+		 * @param nextLabel the last canonical number given after the row
+		 * @return a new state with the row chosen
+		 */
+		private State extend (int row, int position, int[] labels, int nextLabel) {
+			int[] order = rowOrder.clone();
+			order[position] = row;
+			return new State(transposed, grid, colOrder, order, usedRows | ( 1 << row ), labels, nextLabel);
+		}
+	}
+}
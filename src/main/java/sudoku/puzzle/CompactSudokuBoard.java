@@ -0,0 +1,520 @@
+package sudoku.puzzle;
+
+import sudoku.backtracking.Configuration;
+import sudoku.backtracking.MutableConfiguration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Class representing an NxN Sudoku board in a compact form, meant to be used by the Backtracker instead of a
+ * SudokuBoard. Each cell's number is stored in a single byte, and the numbers placed within each row, column
+ * and region are tracked as long masks, so copying a board only copies a few small primitive arrays.
+ * The board can also be searched in place as a MutableConfiguration, where a move is a cell index and number
+ * packed into an int, and no copies are made at all. Both search modes follow the board's {@link SearchHeuristic}.
+ */
+public class CompactSudokuBoard implements Configuration, MutableConfiguration {
+	/** Flag set on a cell's value when its number repeats a number already in its row, column or region */
+	private static final int CONFLICT = 0x40;
+	/** Mask used to read a cell's number from its value, ignoring the conflict flag */
+	private static final int NUMBER = 0x3F;
+	/** Number of bits a move's cell index is shifted by, leaving room for the number in the low bits */
+	private static final int MOVE_SHIFT = 6;
+
+	/** The number of cell rows and columns in this grid, and the largest number */
+	private final int size;
+	/** The units, peers and region of every cell in a grid of this size */
+	private final UnitTables tables;
+	/** The total number of cells in the grid */
+	private final int cells;
+	/** Mask with a bit set for every number in the range [1, size] */
+	private final long allNumbers;
+
+	/** The value of each cell in row-major order, where 0 is an empty cell */
+	private final byte[] values;
+	/** The numbers placed in each row, where bit n - 1 is set if n is in the row */
+	private final long[] rowMasks;
+	/** The numbers placed in each column, where bit n - 1 is set if n is in the column */
+	private final long[] colMasks;
+	/** The numbers placed in each region, where bit n - 1 is set if n is in the region */
+	private final long[] regionMasks;
+	/** Which cells contain a given number, shared between copies since it never changes */
+	private final boolean[] givenNumbers;
+
+	/** How successors and moves choose the cell to branch on and the order to try numbers in */
+	private SearchHeuristic searchHeuristic;
+	/** The number of cells without a number */
+	private int emptyCells;
+	/** The number of cells whose number repeats a number in their row, column or region */
+	private int conflicts;
+	/**
+	 * The numbers to try in the cell branched on by an in-place search with the least constraining value heuristic,
+	 * size entries for each count of empty cells, since that count differs at every depth of one search; or null
+	 * until first needed
+	 */
+	private int[] moveOrders;
+
+	/**
+	 * Create a new CompactSudokuBoard instance holding the same numbers and given numbers as the given SudokuBoard.
+	 *
+	 * @param sudokuBoard SudokuBoard to convert
+	 */
+	public CompactSudokuBoard (SudokuBoard sudokuBoard) {
+		this.size = sudokuBoard.getSize();
+		this.tables = UnitTables.of(size);
+		this.cells = size * size;
+		this.allNumbers = ( 1L << size ) - 1;
+		this.values = new byte[cells];
+		this.rowMasks = new long[size];
+		this.colMasks = new long[size];
+		this.regionMasks = new long[size];
+		this.givenNumbers = new boolean[cells];
+		this.searchHeuristic = sudokuBoard.getSearchHeuristic();
+		this.emptyCells = cells;
+		this.conflicts = 0;
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				SudokuCell sudokuCell = sudokuBoard.getSudokuCell(row, col);
+				givenNumbers[row * size + col] = sudokuCell.isGivenNumber();
+				if (sudokuCell.getNumber() != 0) {
+					placeNumber(row * size + col, sudokuCell.getNumber());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Create a new empty CompactSudokuBoard instance of the given size, for a puzzle reader to fill in with
+	 * {@link CompactSudokuBoard#setGivenNumber(int, int)}.
+	 *
+	 * @param size            number of rows and columns in the board
+	 * @param searchHeuristic heuristic used when generating successors and moves
+	 */
+	CompactSudokuBoard (int size, SearchHeuristic searchHeuristic) {
+		this.size = size;
+		this.tables = UnitTables.of(size);
+		this.cells = size * size;
+		this.allNumbers = ( 1L << size ) - 1;
+		this.values = new byte[cells];
+		this.rowMasks = new long[size];
+		this.colMasks = new long[size];
+		this.regionMasks = new long[size];
+		this.givenNumbers = new boolean[cells];
+		this.searchHeuristic = searchHeuristic;
+		this.emptyCells = cells;
+		this.conflicts = 0;
+	}
+
+	/**
+	 * Create a new CompactSudokuBoard instance copying the state of the given CompactSudokuBoard.
+	 *
+	 * @param other CompactSudokuBoard to copy
+	 */
+	public CompactSudokuBoard (CompactSudokuBoard other) {
+		this.size = other.size;
+		this.tables = other.tables;
+		this.cells = other.cells;
+		this.allNumbers = other.allNumbers;
+		this.values = other.values.clone();
+		this.rowMasks = other.rowMasks.clone();
+		this.colMasks = other.colMasks.clone();
+		this.regionMasks = other.regionMasks.clone();
+		this.givenNumbers = other.givenNumbers;
+		this.searchHeuristic = other.searchHeuristic;
+		this.emptyCells = other.emptyCells;
+		this.conflicts = other.conflicts;
+	}
+
+	/**
+	 * Place the given number in the given empty cell and update the row, column and region masks.
+	 * If the number is already in one of the cell's units, the cell is flagged as conflicting instead.
+	 *
+	 * @param cell cell index in row-major order
+	 * @param num  number to place, in the range [1, size]
+	 */
+	private void placeNumber (int cell, int num) {
+		int row = cell / size;
+		int col = cell % size;
+		int region = tables.getRegionOf(cell);
+		long bit = 1L << ( num - 1 );
+		--emptyCells;
+		if (( ( rowMasks[row] | colMasks[col] | regionMasks[region] ) & bit ) != 0) {
+			values[cell] = (byte) ( num | CONFLICT );
+			++conflicts;
+		} else {
+			values[cell] = (byte) num;
+			rowMasks[row] |= bit;
+			colMasks[col] |= bit;
+			regionMasks[region] |= bit;
+		}
+	}
+
+	/**
+	 * Place a given number of the puzzle in the given empty cell, while the board is being read.
+	 *
+	 * @param cell cell index in row-major order
+	 * @param num  number to place, in the range [1, size]
+	 */
+	void setGivenNumber (int cell, int num) {
+		givenNumbers[cell] = true;
+		placeNumber(cell, num);
+	}
+
+	/**
+	 * Remove the number from the given cell and update the row, column and region masks.
+	 * A conflicting number never set its bits in the masks, so only the conflict count is updated for it.
+	 *
+	 * @param cell cell index in row-major order
+	 */
+	private void removeNumber (int cell) {
+		int value = values[cell];
+		if (( value & CONFLICT ) != 0) {
+			--conflicts;
+		} else {
+			long bit = ~( 1L << ( ( value & NUMBER ) - 1 ) );
+			rowMasks[cell / size] &= bit;
+			colMasks[cell % size] &= bit;
+			regionMasks[tables.getRegionOf(cell)] &= bit;
+		}
+		values[cell] = 0;
+		++emptyCells;
+	}
+
+	/**
+	 * Get the number in the cell at the given row and column.
+	 *
+	 * @param row row number
+	 * @param col column number
+	 * @return number in the cell, or 0 if empty
+	 */
+	public int getNumber (int row, int col) {
+		return values[row * size + col] & NUMBER;
+	}
+
+	/**
+	 * @return the number of rows and columns in this board, which is also the largest number
+	 */
+	public int getSize () {
+		return size;
+	}
+
+	/**
+	 * Get the numbers that can still be placed in the cell at the given row and column without repeating a
+	 * number in its row, column or region.
+	 *
+	 * @param row row number
+	 * @param col column number
+	 * @return mask where bit n - 1 is set if n is a candidate
+	 */
+	public long getCandidates (int row, int col) {
+		return candidatesOf(row * size + col);
+	}
+
+	/**
+	 * Get the numbers that can still be placed in the given cell.
+	 *
+	 * @param cell cell index in row-major order
+	 * @return mask where bit n - 1 is set if n is a candidate
+	 */
+	private long candidatesOf (int cell) {
+		return ~( rowMasks[cell / size] | colMasks[cell % size] | regionMasks[tables.getRegionOf(cell)] ) & allNumbers;
+	}
+
+	/**
+	 * Find the cell to branch on according to this board's heuristic.
+	 *
+	 * @return cell index in row-major order, or -1 if every cell has a number
+	 */
+	private int chooseCell () {
+		int best = -1;
+		int bestCount = size + 1;
+		for (int cell = 0; cell < cells; cell++) {
+			if (values[cell] == 0) {
+				if (searchHeuristic == SearchHeuristic.FIRST_EMPTY_CELL) {
+					return cell;
+				}
+				int count = Long.bitCount(candidatesOf(cell));
+				if (count < bestCount) {
+					best = cell;
+					bestCount = count;
+					if (count <= 1) {
+						// no cell can have fewer options, stop looking
+						break;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Get the numbers to try in the given empty cell, in the order set by this board's heuristic.
+	 *
+	 * @param cell cell index in row-major order
+	 * @return numbers to try, in order
+	 */
+	private int[] orderNumbers (int cell) {
+		if (searchHeuristic == SearchHeuristic.FIRST_EMPTY_CELL) {
+			int[] numbers = new int[size];
+			for (int i = 0; i < size; i++) {
+				numbers[i] = i + 1;
+			}
+			return numbers;
+		}
+		long candidates = candidatesOf(cell);
+		int[] numbers = new int[Long.bitCount(candidates)];
+		if (searchHeuristic == SearchHeuristic.MINIMUM_REMAINING_VALUES) {
+			for (int i = 0; candidates != 0; i++, candidates &= candidates - 1) {
+				numbers[i] = Long.numberOfTrailingZeros(candidates) + 1;
+			}
+			return numbers;
+		}
+		orderLeastConstraining(cell, candidates, numbers, 0);
+		return numbers;
+	}
+
+	/**
+	 * Write the given candidates of an empty cell into an array, least constraining first: repeatedly take the
+	 * remaining candidate that rules out the fewest options.
+	 *
+	 * @param cell       cell index in row-major order
+	 * @param candidates candidates of the cell, where bit n - 1 is set if n is a candidate
+	 * @param numbers    array written to, with room for every candidate from offset
+	 * @param offset     index the first number is written at
+	 */
+	private void orderLeastConstraining (int cell, long candidates, int[] numbers, int offset) {
+		for (int i = offset; candidates != 0; i++) {
+			int bestNum = 0;
+			int bestRuledOut = Integer.MAX_VALUE;
+			for (long remaining = candidates; remaining != 0; remaining &= remaining - 1) {
+				int num = Long.numberOfTrailingZeros(remaining) + 1;
+				int ruledOut = countPeersWithCandidate(cell, num);
+				if (ruledOut < bestRuledOut) {
+					bestNum = num;
+					bestRuledOut = ruledOut;
+				}
+			}
+			numbers[i] = bestNum;
+			candidates &= ~( 1L << ( bestNum - 1 ) );
+		}
+	}
+
+	/**
+	 * Count the empty cells in the same row, column or region as the given cell that have the given number as
+	 * a candidate, which is the number of options placing that number would rule out.
+	 *
+	 * @param cell cell index in row-major order
+	 * @param num  number to check
+	 * @return number of empty peer cells with num as a candidate
+	 */
+	private int countPeersWithCandidate (int cell, int num) {
+		long bit = 1L << ( num - 1 );
+		int count = 0;
+		for (int peer : tables.getPeers(cell)) {
+			if (values[peer] == 0 && ( candidatesOf(peer) & bit ) != 0) {
+				++count;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Set the heuristic used when generating successors and moves. Copies inherit this board's heuristic.
+	 *
+	 * @param searchHeuristic heuristic to use
+	 */
+	public void setSearchHeuristic (SearchHeuristic searchHeuristic) {
+		this.searchHeuristic = searchHeuristic;
+	}
+
+	/**
+	 * Convert this CompactSudokuBoard back into a SudokuBoard, keeping track of which numbers were given.
+	 *
+	 * @return a new SudokuBoard with the same numbers as this board
+	 */
+	public SudokuBoard toSudokuBoard () {
+		int[][] cellValues = new int[size][size];
+		boolean[][] given = new boolean[size][size];
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				cellValues[row][col] = values[row * size + col] & NUMBER;
+				given[row][col] = givenNumbers[row * size + col];
+			}
+		}
+		SudokuBoard sudokuBoard = new SudokuBoard(cellValues, given);
+		sudokuBoard.setSearchHeuristic(searchHeuristic);
+		return sudokuBoard;
+	}
+
+	/**
+	 * Generate the successors to this board by placing a new number in the cell chosen by this board's heuristic,
+	 * see {@link CompactSudokuBoard#successorIterator()}.
+	 *
+	 * @return all successors, valid and invalid
+	 */
+	@Override
+	public Collection<Configuration> getSuccessors () {
+		Collection<Configuration> successors = new ArrayList<>(size);
+		successorIterator().forEachRemaining(successors::add);
+		return successors;
+	}
+
+	/**
+	 * Lazily generate the successors to this board by placing a new number in the cell chosen by this board's
+	 * heuristic. By default, every number [1, size] is placed in the first empty cell found in the lowest numbered
+	 * row and column; the other heuristics only place legal numbers. A copy of this board is only made once the
+	 * iterator reaches its successor.
+	 *
+	 * @return iterator over all successors, valid and invalid
+	 */
+	@Override
+	public Iterator<Configuration> successorIterator () {
+		int cell = chooseCell();
+		if (cell == -1) {
+			return Collections.emptyIterator();
+		}
+		int[] numbers = orderNumbers(cell);
+		return new Iterator<>() {
+			/** Index of the next number to place */
+			private int next = 0;
+
+			@Override
+			public boolean hasNext () {
+				return next < numbers.length;
+			}
+
+			@Override
+			public Configuration next () {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				CompactSudokuBoard newBoard = new CompactSudokuBoard(CompactSudokuBoard.this);
+				newBoard.placeNumber(cell, numbers[next++]);
+				return newBoard;
+			}
+		};
+	}
+
+	/**
+	 * Get the first move from this board: placing the first number to try in the cell chosen by this board's
+	 * heuristic. By default, this is a 1 in the first empty cell found in the lowest numbered row and column.
+	 *
+	 * @return the first move, or NO_MOVE if the board is full or the chosen cell has no legal number
+	 */
+	@Override
+	public int firstMove () {
+		int cell = chooseCell();
+		if (cell == -1) {
+			return NO_MOVE;
+		}
+		int num;
+		if (searchHeuristic == SearchHeuristic.FIRST_EMPTY_CELL) {
+			num = 1;
+		} else if (searchHeuristic == SearchHeuristic.MINIMUM_REMAINING_VALUES) {
+			long candidates = candidatesOf(cell);
+			if (candidates == 0) {
+				return NO_MOVE;
+			}
+			num = Long.numberOfTrailingZeros(candidates) + 1;
+		} else {
+			long candidates = candidatesOf(cell);
+			if (candidates == 0) {
+				return NO_MOVE;
+			}
+			// keep the order for nextMove, in the entries of this depth, ended by a 0 if shorter than size
+			if (moveOrders == null) {
+				moveOrders = new int[( cells + 1 ) * size];
+			}
+			int offset = emptyCells * size;
+			int count = Long.bitCount(candidates);
+			orderLeastConstraining(cell, candidates, moveOrders, offset);
+			if (count < size) {
+				moveOrders[offset + count] = 0;
+			}
+			num = moveOrders[offset];
+		}
+		return ( cell << MOVE_SHIFT ) | num;
+	}
+
+	/**
+	 * Get the move after the given move, which places the next number to try in the same cell.
+	 *
+	 * @param move the previous move
+	 * @return the next move, or NO_MOVE once every number has been tried
+	 */
+	@Override
+	public int nextMove (int move) {
+		int num = move & NUMBER;
+		if (searchHeuristic == SearchHeuristic.FIRST_EMPTY_CELL) {
+			return ( num == size ) ? NO_MOVE : move + 1;
+		}
+		int cell = move >>> MOVE_SHIFT;
+		if (searchHeuristic == SearchHeuristic.MINIMUM_REMAINING_VALUES) {
+			// candidates larger than num, bit n - 1 is the number n
+			long larger = candidatesOf(cell) & ( allNumbers << num );
+			return ( larger == 0 ) ? NO_MOVE : ( cell << MOVE_SHIFT ) | ( Long.numberOfTrailingZeros(larger) + 1 );
+		}
+		// the order firstMove kept for this depth, which deeper moves have not overwritten
+		int offset = emptyCells * size;
+		int index = 0;
+		while (moveOrders[offset + index] != num) {
+			++index;
+		}
+		return ( index + 1 >= size || moveOrders[offset + index + 1] == 0 ) ? NO_MOVE
+				: ( cell << MOVE_SHIFT ) | moveOrders[offset + index + 1];
+	}
+
+	/**
+	 * Place the move's number in the move's cell.
+	 *
+	 * @param move the move to make
+	 */
+	@Override
+	public void makeMove (int move) {
+		placeNumber(move >>> MOVE_SHIFT, move & NUMBER);
+	}
+
+	/**
+	 * Remove the number the move placed in the move's cell.
+	 *
+	 * @param move the move to undo
+	 */
+	@Override
+	public void undoMove (int move) {
+		removeNumber(move >>> MOVE_SHIFT);
+	}
+
+	/**
+	 * Check if this board has any repeating numbers in its regions, rows and columns.
+	 * Conflicts are counted as numbers are placed, so no scan of the board is needed.
+	 *
+	 * @return true if no number is repeated
+	 */
+	@Override
+	public boolean isValid () {
+		return conflicts == 0;
+	}
+
+	/**
+	 * Check if this board is a solution: every cell has a number and no number is repeated.
+	 *
+	 * @return true if this board is a solution
+	 */
+	@Override
+	public boolean isGoal () {
+		return emptyCells == 0 && conflicts == 0;
+	}
+
+	/**
+	 * Create a String representation of this board, using the same layout as a SudokuBoard.
+	 *
+	 * @return visual String representation of the board
+	 */
+	@Override
+	public String toString () {
+		return toSudokuBoard().toString();
+	}
+}
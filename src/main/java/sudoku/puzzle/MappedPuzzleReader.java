@@ -0,0 +1,152 @@
+package sudoku.puzzle;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a corpus of puzzles in the {@link PuzzleFormat#LINE} format, where every line has the same length, by
+ * memory-mapping the file and decoding each record straight from the mapped bytes into a CompactSudokuBoard.
+ * No String or line buffer is created per puzzle, so parsing a multi-gigabyte corpus costs little more than the
+ * boards themselves. Files larger than a single mapping are mapped one segment of whole records at a time.
+ * <p>
+ * Since every record has the same length, any puzzle can also be read directly by its index. A reader is not
+ * safe to use from several threads at once.
+ * </p>
+ */
+public class MappedPuzzleReader implements Closeable {
+	/** The file being read */
+	private final FileChannel channel;
+	/** The heuristic given to every board read */
+	private final SearchHeuristic searchHeuristic;
+	/** The number of rows and columns of each puzzle */
+	private final int size;
+	/** The number of bytes of each record, including its line separator */
+	private final int recordLength;
+	/** The number of records in the file */
+	private final long records;
+	/** The number of whole records mapped at once */
+	private final long recordsPerSegment;
+
+	/** The currently mapped segment of the file */
+	private MappedByteBuffer segment;
+	/** The index of the currently mapped segment, or -1 if none */
+	private long segmentIndex;
+	/** The index of the record {@link MappedPuzzleReader#next()} reads */
+	private long nextRecord;
+
+	/**
+	 * Open a corpus file. The length of each record is taken from the first line, which may end in either "\n" or
+	 * "\r\n"; the last line may omit its line separator.
+	 *
+	 * @param file            file of fixed width puzzle lines
+	 * @param searchHeuristic heuristic given to every board read
+	 * @throws IOException              if the file cannot be read
+	 * @throws IllegalArgumentException if the first line is not a puzzle
+	 */
+	public MappedPuzzleReader (Path file, SearchHeuristic searchHeuristic) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		this.searchHeuristic = searchHeuristic;
+		this.segmentIndex = -1;
+		this.nextRecord = 0;
+		try {
+			long fileLength = channel.size();
+			MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(fileLength, 4096));
+			int cells = 0;
+			while (cells < head.limit() && head.get(cells) != '\n' && head.get(cells) != '\r') {
+				++cells;
+			}
+			int separator = 0;
+			if (cells < head.limit() && head.get(cells) == '\r') {
+				++separator;
+			}
+			if (cells + separator < head.limit() && head.get(cells + separator) == '\n') {
+				++separator;
+			}
+			this.size = (int) Math.round(Math.sqrt(cells));
+			if (cells == 0 || size * size != cells || size > 9) {
+				throw new IllegalArgumentException("First line of " + file + " is not a puzzle line");
+			}
+			// rejects sizes without square regions
+			SudokuBoard.boxSizeOf(size);
+			this.recordLength = cells + separator;
+			long whole = fileLength / recordLength;
+			// the last record may be missing its line separator
+			this.records = ( fileLength % recordLength >= cells ) ? whole + 1 : whole;
+			this.recordsPerSegment = Integer.MAX_VALUE / recordLength;
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the number of puzzles in the file
+	 */
+	public long size () {
+		return records;
+	}
+
+	/**
+	 * @return true if {@link MappedPuzzleReader#next()} has a puzzle left to read
+	 */
+	public boolean hasNext () {
+		return nextRecord < records;
+	}
+
+	/**
+	 * Read the next puzzle in the file.
+	 *
+	 * @return the next puzzle, or null once every puzzle has been read
+	 * @throws IOException              if the file cannot be mapped
+	 * @throws IllegalArgumentException if the record is not a puzzle
+	 */
+	public CompactSudokuBoard next () throws IOException {
+		return hasNext() ? get(nextRecord++) : null;
+	}
+
+	/**
+	 * Read the puzzle with the given index, without changing which puzzle {@link MappedPuzzleReader#next()} reads.
+	 *
+	 * @param index index of the puzzle, starting at 0
+	 * @return the puzzle, with every number marked as given
+	 * @throws IOException              if the file cannot be mapped
+	 * @throws IllegalArgumentException if the record is not a puzzle
+	 */
+	public CompactSudokuBoard get (long index) throws IOException {
+		if (index < 0 || index >= records) {
+			throw new IndexOutOfBoundsException("Puzzle " + index + " of " + records);
+		}
+		long segmentOfRecord = index / recordsPerSegment;
+		if (segmentOfRecord != segmentIndex) {
+			long start = segmentOfRecord * recordsPerSegment * recordLength;
+			long length = Math.min(channel.size() - start, recordsPerSegment * recordLength);
+			segment = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+			segmentIndex = segmentOfRecord;
+		}
+		int offset = (int) ( ( index % recordsPerSegment ) * recordLength );
+		CompactSudokuBoard board = new CompactSudokuBoard(size, searchHeuristic);
+		for (int cell = 0; cell < size * size; cell++) {
+			byte c = segment.get(offset + cell);
+			if (c >= '1' && c <= '0' + size) {
+				board.setGivenNumber(cell, c - '0');
+			} else if (c != '0' && c != '.') {
+				throw new IllegalArgumentException("Unexpected character '" + (char) c + "' in puzzle " + index);
+			}
+		}
+		return board;
+	}
+
+	/**
+	 * Close the file. Mapped segments stay valid until they are garbage collected.
+	 *
+	 * @throws IOException if the file cannot be closed
+	 */
+	@Override
+	public void close () throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,71 @@
+package sudoku.puzzle;
+
+/** The text formats a Sudoku puzzle can be read from and written in. */
+public enum PuzzleFormat {
+	/**
+	 * One puzzle per line, with one character per cell read row by row, such as the common 81 character format for
+	 * a 9x9 puzzle. Empty cells are written as 0 and may also be read as '.'. Only boards up to 9x9 fit this format.
+	 */
+	LINE,
+	/** One row of comma separated numbers per line, where 0 is an empty cell, as in the files in the input directory */
+	CSV;
+
+	/**
+	 * Parse a puzzle written in the {@link PuzzleFormat#LINE} format.
+	 *
+	 * @param line one character per cell
+	 * @return the puzzle, where every number is a given number
+	 * @throws IllegalArgumentException if the line is not a puzzle
+	 */
+	public static SudokuBoard parseLine (CharSequence line) {
+		int size = (int) Math.round(Math.sqrt(line.length()));
+		if (size * size != line.length() || size > 9) {
+			throw new IllegalArgumentException("Not a puzzle line of length " + line.length());
+		}
+		int[][] cellValues = new int[size][size];
+		for (int cell = 0; cell < line.length(); cell++) {
+			char c = line.charAt(cell);
+			if (c >= '1' && c <= '9') {
+				cellValues[cell / size][cell % size] = c - '0';
+			} else if (c != '0' && c != '.') {
+				throw new IllegalArgumentException("Unexpected character '" + c + "' in puzzle line");
+			}
+		}
+		return new SudokuBoard(cellValues, null);
+	}
+
+	/**
+	 * Write the numbers of a SudokuBoard in this format. A {@link PuzzleFormat#CSV} puzzle spans one line per row.
+	 *
+	 * @param sudokuBoard SudokuBoard to write
+	 * @return the puzzle, without a trailing line separator
+	 * @throws IllegalArgumentException if the board is too large for the {@link PuzzleFormat#LINE} format
+	 */
+	public String format (SudokuBoard sudokuBoard) {
+		int size = sudokuBoard.getSize();
+		StringBuilder str = new StringBuilder(size * size * 2);
+		if (this == LINE) {
+			if (size > 9) {
+				throw new IllegalArgumentException("A " + size + "x" + size + " board does not fit on a puzzle line");
+			}
+			for (int row = 0; row < size; row++) {
+				for (int col = 0; col < size; col++) {
+					str.append((char) ( '0' + sudokuBoard.getSudokuCell(row, col).getNumber() ));
+				}
+			}
+		} else {
+			for (int row = 0; row < size; row++) {
+				if (row > 0) {
+					str.append(System.lineSeparator());
+				}
+				for (int col = 0; col < size; col++) {
+					if (col > 0) {
+						str.append(',');
+					}
+					str.append(sudokuBoard.getSudokuCell(row, col).getNumber());
+				}
+			}
+		}
+		return str.toString();
+	}
+}
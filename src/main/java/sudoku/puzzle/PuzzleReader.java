@@ -0,0 +1,124 @@
+package sudoku.puzzle;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Reads a stream of Sudoku puzzles one at a time, so a file of any number of puzzles can be processed without
+ * loading it whole. Each puzzle may be in either {@link PuzzleFormat}: a line of one character per cell, or a block
+ * of comma separated rows. Blank lines and lines starting with '#' are skipped. A line such as
+ * {@code puzzle,solution} whose first comma separated field is longer than a number is read as a puzzle line, and
+ * the rest of the line is ignored.
+ */
+public class PuzzleReader implements Closeable {
+	/** The stream puzzles are read from */
+	private final BufferedReader reader;
+	/** The number of lines read so far, used in error messages */
+	private long lineNumber;
+	/** The format of the last puzzle read */
+	private PuzzleFormat lastFormat;
+
+	/**
+	 * Create a new PuzzleReader reading from the given stream.
+	 *
+	 * @param reader stream of puzzles, closed when this reader is closed
+	 */
+	public PuzzleReader (BufferedReader reader) {
+		this.reader = reader;
+		this.lineNumber = 0;
+		this.lastFormat = null;
+	}
+
+	/**
+	 * Read the next puzzle from the stream.
+	 *
+	 * @return the next puzzle, or null at the end of the stream
+	 * @throws UncheckedIOException     if the stream cannot be read
+	 * @throws IllegalArgumentException if the next puzzle is malformed
+	 */
+	public SudokuBoard next () {
+		try {
+			String line = nextLine();
+			if (line == null) {
+				return null;
+			}
+			int comma = line.indexOf(',');
+			String first = ( comma == -1 ) ? line : line.substring(0, comma).trim();
+			if (first.length() > 2) {
+				lastFormat = PuzzleFormat.LINE;
+				return PuzzleFormat.parseLine(first);
+			}
+			lastFormat = PuzzleFormat.CSV;
+			return readCsv(line);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Read the rest of a CSV puzzle, whose first row has already been read.
+	 *
+	 * @param firstRow the first row of the puzzle
+	 * @return the puzzle
+	 * @throws IOException if the stream cannot be read
+	 */
+	private SudokuBoard readCsv (String firstRow) throws IOException {
+		String[] rowValues = firstRow.split(",");
+		int size = rowValues.length;
+		int[][] cellValues = new int[size][size];
+		for (int row = 0; row < size; row++) {
+			if (row > 0) {
+				String line = reader.readLine();
+				++lineNumber;
+				if (line == null) {
+					throw new IllegalArgumentException("Puzzle ends after " + row + " of " + size + " rows");
+				}
+				rowValues = line.split(",");
+			}
+			if (rowValues.length != size) {
+				throw new IllegalArgumentException("Expected " + size + " numbers but found " + rowValues.length);
+			}
+			for (int col = 0; col < size; col++) {
+				cellValues[row][col] = Integer.parseInt(rowValues[col].trim());
+			}
+		}
+		return new SudokuBoard(cellValues, null);
+	}
+
+	/**
+	 * @return the next line that is not blank or a comment, trimmed, or null at the end of the stream
+	 * @throws IOException if the stream cannot be read
+	 */
+	private String nextLine () throws IOException {
+		String line;
+		while (( line = reader.readLine() ) != null) {
+			++lineNumber;
+			line = line.trim();
+			if (!line.isEmpty() && line.charAt(0) != '#') {
+				return line;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the format of the last puzzle read, or null if no puzzle has been read
+	 */
+	public PuzzleFormat getLastFormat () {
+		return lastFormat;
+	}
+
+	/**
+	 * Close the underlying stream.
+	 *
+	 * @throws IOException if the stream cannot be closed
+	 */
+	@Override
+	public void close () throws IOException {
+		reader.close();
+	}
+}
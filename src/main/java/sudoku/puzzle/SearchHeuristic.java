@@ -0,0 +1,17 @@
+package sudoku.puzzle;
+
+/**
+ * The ways a Sudoku board can choose which empty cell to branch on when generating successors,
+ * and in which order to try numbers in that cell.
+ */
+public enum SearchHeuristic {
+	/** Branch on the first empty cell in row-major order and try every number [1, size], legal or not */
+	FIRST_EMPTY_CELL,
+	/** Branch on the empty cell with the fewest legal numbers, and only try its legal numbers */
+	MINIMUM_REMAINING_VALUES,
+	/**
+	 * Branch on the empty cell with the fewest legal numbers, and try its legal numbers starting with
+	 * the number that rules out the fewest options for the empty cells in the same row, column and region
+	 */
+	LEAST_CONSTRAINING_VALUE
+}
@@ -0,0 +1,178 @@
+package sudoku.puzzle;
+
+import sudoku.backtracking.Backtracker;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * A bounded cache of solutions in front of a solver, keyed by the {@link CanonicalForm} of each puzzle, so a puzzle
+ * that is a relabelled, transposed or permuted copy of one solved before costs one canonicalization instead of a
+ * full search. Solutions are stored in canonical form and mapped back through the puzzle's own transformation.
+ * Puzzles without a solution are cached too. Once full, the least recently used solution is evicted.
+ * <p>
+ * Canonicalizing a 9x9 puzzle takes about 2 milliseconds on average, and far longer for a few puzzles, so the cache
+ * only helps in front of a solver that is slower than that.
+ * </p>
+ * <p>
+ * A SolutionCache may be shared by many threads. The solver runs outside the cache's lock, so two threads missing
+ * on the same puzzle at once will both solve it.
+ * </p>
+ */
+public class SolutionCache {
+	/** Stored for a puzzle with no solution */
+	private static final int[][] NO_SOLUTION = new int[0][];
+
+	/** The solver used on a cache miss */
+	private final Function<SudokuBoard, Optional<SudokuBoard>> solver;
+	/** Canonical solution of each canonical puzzle key, in least to most recently used order */
+	private final LinkedHashMap<String, int[][]> solutions;
+	/** The number of puzzles answered from the cache */
+	private long hits;
+	/** The number of puzzles passed to the solver */
+	private long misses;
+
+	/**
+	 * Create a new SolutionCache in front of a {@link Backtracker}.
+	 *
+	 * @param capacity the most solutions kept
+	 */
+	public SolutionCache (int capacity) {
+		this(capacity, sudokuBoard -> new Backtracker(false).solve(sudokuBoard).map(SudokuBoard.class::cast));
+	}
+
+	/**
+	 * Create a new SolutionCache in front of the given solver.
+	 *
+	 * @param capacity the most solutions kept
+	 * @param solver   solver used on a cache miss, which must treat every number in the puzzle as fixed
+	 * @throws IllegalArgumentException if capacity is less than 1
+	 */
+	public SolutionCache (int capacity, Function<SudokuBoard, Optional<SudokuBoard>> solver) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("A cache needs room for at least one solution, not " + capacity);
+		}
+		this.solver = solver;
+		this.solutions = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry (Map.Entry<String, int[][]> eldest) {
+				return size() > capacity;
+			}
+		};
+		this.hits = 0;
+		this.misses = 0;
+	}
+
+	/**
+	 * Find a solution for the given SudokuBoard, from the cache if an equivalent puzzle was solved before, otherwise
+	 * with the solver. Boards larger than {@link CanonicalForm#MAX_SIZE} are always passed to the solver.
+	 *
+	 * @param sudokuBoard SudokuBoard to solve, which is not changed
+	 * @return a solved SudokuBoard with the same given numbers, or empty if there is no solution
+	 */
+	public Optional<SudokuBoard> solve (SudokuBoard sudokuBoard) {
+		return solve(sudokuBoard, solver);
+	}
+
+	/**
+	 * Find a solution for the given SudokuBoard, from the cache if an equivalent puzzle was solved before, otherwise
+	 * with the given solver, such as one with a deadline for this puzzle. If the solver throws, nothing is cached.
+	 *
+	 * @param sudokuBoard SudokuBoard to solve, which is not changed
+	 * @param solver      solver used on a cache miss, which must treat every number in the puzzle as fixed
+	 * @return a solved SudokuBoard with the same given numbers, or empty if there is no solution
+	 */
+	public Optional<SudokuBoard> solve (SudokuBoard sudokuBoard, Function<SudokuBoard, Optional<SudokuBoard>> solver) {
+		if (sudokuBoard.getSize() > CanonicalForm.MAX_SIZE) {
+			return solver.apply(sudokuBoard);
+		}
+		CanonicalForm canonicalForm = CanonicalForm.of(sudokuBoard);
+		int[][] cached;
+		synchronized (this) {
+			cached = solutions.get(canonicalForm.getKey());
+			if (cached != null) {
+				++hits;
+			} else {
+				++misses;
+			}
+		}
+		if (cached != null) {
+			return ( cached == NO_SOLUTION ) ? Optional.empty()
+					: Optional.of(toSudokuBoard(canonicalForm.fromCanonical(cached), sudokuBoard));
+		}
+
+		Optional<SudokuBoard> solution = solver.apply(sudokuBoard);
+		int[][] canonicalSolution = solution.map(solved -> canonicalForm.toCanonical(numbersOf(solved)))
+				.orElse(NO_SOLUTION);
+		synchronized (this) {
+			solutions.put(canonicalForm.getKey(), canonicalSolution);
+		}
+		return solution;
+	}
+
+	/**
+	 * @param sudokuBoard a SudokuBoard
+	 * @return the number in every cell of the board, where 0 is an empty cell
+	 */
+	private static int[][] numbersOf (SudokuBoard sudokuBoard) {
+		int size = sudokuBoard.getSize();
+		int[][] numbers = new int[size][size];
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				numbers[row][col] = sudokuBoard.getSudokuCell(row, col).getNumber();
+			}
+		}
+		return numbers;
+	}
+
+	/**
+	 * @param numbers the numbers of a solution
+	 * @param puzzle  the puzzle it solves
+	 * @return a SudokuBoard of the solution, keeping the puzzle's given numbers and search heuristic
+	 */
+	private static SudokuBoard toSudokuBoard (int[][] numbers, SudokuBoard puzzle) {
+		int size = numbers.length;
+		boolean[][] givenNumbers = new boolean[size][size];
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				givenNumbers[row][col] = puzzle.getSudokuCell(row, col).isGivenNumber();
+			}
+		}
+		SudokuBoard solution = new SudokuBoard(numbers, givenNumbers);
+		solution.setSearchHeuristic(puzzle.getSearchHeuristic());
+		return solution;
+	}
+
+	/**
+	 * @return the number of puzzles answered from the cache
+	 */
+	public synchronized long getHits () {
+		return hits;
+	}
+
+	/**
+	 * @return the number of puzzles passed to the solver
+	 */
+	public synchronized long getMisses () {
+		return misses;
+	}
+
+	/**
+	 * @return the number of solutions in the cache
+	 */
+	public synchronized int size () {
+		return solutions.size();
+	}
+
+	/**
+	 * Create a String representation of this cache's hit and miss counts.
+	 *
+	 * @return String describing this cache
+	 */
+	@Override
+	public synchronized String toString () {
+		return String.format("%d cache hits, %d misses, %d cached", hits, misses, solutions.size());
+	}
+}
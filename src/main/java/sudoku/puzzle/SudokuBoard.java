@@ -7,56 +7,103 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
-/** Class representing a 9x9 Sudoku board. Keeps track of the cells within the 9x9 board. */
+/**
+ * Class representing an NxN Sudoku board, such as the classic 9x9 board or a 16x16 or 25x25 variant. Keeps track
+ * of the cells within the board. The board size must be a perfect square, and each region is a square of
+ * {@link SudokuBoard#getBoxSize()} rows and columns.
+ */
 public class SudokuBoard implements Configuration {
-	/** The number of SudokuCell rows in this grid */
-	public static final int rows = 9;
-	/** The number of SudokuCell columns in this grid */
-	public static final int cols = 9;
+	/** The number of SudokuCell rows and columns in a classic board */
+	public static final int DEFAULT_SIZE = 9;
+	/** The largest supported board size, so that a mask of candidate numbers fits in a long */
+	public static final int MAX_SIZE = 49;
+
+	/** The number of SudokuCell rows and columns in this grid, and the largest number */
+	private final int size;
+	/** The number of SudokuCell rows and columns in each region */
+	private final int boxSize;
+	/** The units and peers of every SudokuCell, shared by every board of this size */
+	private final UnitTables tables;
 
 	/** 2D Array of SudokuCells in the puzzle */
 	private final SudokuCell[][] board;
+	/** The same SudokuCells in row-major order, indexed like the {@link UnitTables} */
+	private final SudokuCell[] cells;
+
+	/** How successors choose the SudokuCell to branch on and the order to try numbers in */
+	private SearchHeuristic searchHeuristic;
+
+	/** Row of the SudokuCell the last number was placed in when this board was generated as a successor, or -1 */
+	private int lastRow;
+	/** Column of the SudokuCell the last number was placed in when this board was generated as a successor, or -1 */
+	private int lastCol;
+	/** Was the board this successor was generated from valid? Only used if the last placed number is known */
+	private boolean parentValid;
 
 	/**
 	 * Create a new SudokuBoard instance and populate the 2D Array of SudokuCells with the values
-	 * from the given file. Does not check the file given is a file containing a Sudoku puzzle.
+	 * from the given file. The size of the board is the number of values in the first line of the file.
+	 * Does not check the file given is a file containing a Sudoku puzzle.
 	 *
-	 * @param filename a csv file containing a 9x9 Sudoku puzzle
+	 * @param filename a csv file containing an NxN Sudoku puzzle
 	 */
 	public SudokuBoard (String filename) {
-		int[][] cellValues = new int[rows][cols];
+		int[][] cellValues = null;
 		try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
 			String line;
 			int fileRow = 0;
 			while (( line = br.readLine() ) != null) {
 				String[] rowValues = line.split(",");
-				for (int col = 0; col < cols; col++) {
-					cellValues[fileRow][col] = Integer.parseInt(rowValues[col]);
+				if (cellValues == null) {
+					cellValues = new int[rowValues.length][rowValues.length];
 				}
-				++fileRow;
-			}
-
-			this.board = new SudokuCell[rows][cols];
-			int region = 1;
-			for (int row = 0; row < rows; row++) {
-				for (int col = 0; col < cols; col++) {
-					this.board[row][col] = new SudokuCell(region, row, col, cellValues[row][col]);
-					if (( col + 1 ) % 3 == 0) {
-						// increment the region every 3 columns
-						++region;
-					}
-				}
-				if (( ( row + 1 ) % 3 ) != 0) {
-					// only allow region to be incremented every 3 rows
-					// subtract by the number of regions in a row: 3
-					region -= 3;
+				for (int col = 0; col < cellValues.length; col++) {
+					cellValues[fileRow][col] = Integer.parseInt(rowValues[col].trim());
 				}
+				++fileRow;
 			}
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
+		if (cellValues == null) {
+			throw new IllegalArgumentException("Empty Sudoku puzzle file " + filename);
+		}
+		this.size = cellValues.length;
+		this.boxSize = boxSizeOf(size);
+		this.tables = UnitTables.of(size);
+		this.board = new SudokuCell[size][size];
+		this.cells = new SudokuCell[size * size];
+		this.searchHeuristic = SearchHeuristic.FIRST_EMPTY_CELL;
+		this.lastRow = -1;
+		this.lastCol = -1;
+		populateBoard(cellValues, null);
+	}
+
+	/**
+	 * Create a new SudokuBoard instance and populate the 2D Array of SudokuCells with the given values.
+	 * A SudokuCell is marked as containing a given number if its entry in givenNumbers is true, which allows
+	 * a partially or fully solved board to keep track of the puzzle's original numbers.
+	 *
+	 * The size of the board is the number of rows in cellValues.
+	 *
+	 * @param cellValues   2D Array of numbers for each SudokuCell, where 0 is an empty SudokuCell
+	 * @param givenNumbers 2D Array marking which SudokuCells contain a given number, or null to treat every non-zero
+	 *                     value as a given number
+	 */
+	public SudokuBoard (int[][] cellValues, boolean[][] givenNumbers) {
+		this.size = cellValues.length;
+		this.boxSize = boxSizeOf(size);
+		this.tables = UnitTables.of(size);
+		this.board = new SudokuCell[size][size];
+		this.cells = new SudokuCell[size * size];
+		this.searchHeuristic = SearchHeuristic.FIRST_EMPTY_CELL;
+		this.lastRow = -1;
+		this.lastCol = -1;
+		populateBoard(cellValues, givenNumbers);
 	}
 
 	/**
@@ -66,58 +113,68 @@ public class SudokuBoard implements Configuration {
 	 * @param other SudokuBoard to clone
 	 */
 	public SudokuBoard (SudokuBoard other) {
-		this.board = new SudokuCell[rows][cols];
-		for (int row = 0; row < rows; row++) {
-			for (int col = 0; col < cols; col++) {
+		this.size = other.size;
+		this.boxSize = other.boxSize;
+		this.tables = other.tables;
+		this.board = new SudokuCell[size][size];
+		this.cells = new SudokuCell[size * size];
+		this.searchHeuristic = other.searchHeuristic;
+		this.lastRow = -1;
+		this.lastCol = -1;
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
 				this.board[row][col] = new SudokuCell(other.board[row][col]);
+				this.cells[row * size + col] = board[row][col];
 			}
 		}
 	}
 
 	/**
-	 * Get all the SudokuCells within the given region.
-	 * Used when verifying if current puzzle grid is a solution.
+	 * Get the size of each region of a board with the given size.
 	 *
-	 * @param region region to search for
-	 * @return ArrayList of SudokuCells in the given region
+	 * @param size number of rows and columns in the board
+	 * @return number of rows and columns in each region
+	 * @throws IllegalArgumentException if size is not a perfect square between 4 and {@link SudokuBoard#MAX_SIZE}
 	 */
-	private ArrayList<SudokuCell> getRegion (int region) {
-		ArrayList<SudokuCell> sudokuCells = new ArrayList<>(9); // there will only ever be 9 SudokuCells in a region
-		for (int row = 0; row < rows; row++) {
-			for (int col = 0; col < cols; col++) {
-				SudokuCell current = board[row][col];
-				if (current.getRegion() == region) {
-					sudokuCells.add(current);
-				}
-			}
+	public static int boxSizeOf (int size) {
+		int boxSize = (int) Math.round(Math.sqrt(size));
+		if (size < 4 || size > MAX_SIZE || boxSize * boxSize != size) {
+			throw new IllegalArgumentException("Unsupported Sudoku board size " + size);
 		}
-		return sudokuCells;
+		return boxSize;
 	}
 
 	/**
-	 * Get the given row of SudokuCells in the puzzle grid.
-	 * Used when verifying if current puzzle grid is a solution.
+	 * Populate the 2D Array of SudokuCells with the given values, assigning each SudokuCell its region.
+	 * If givenNumbers is null, every non-zero value is treated as a given number.
 	 *
-	 * @param row row number
-	 * @return Array of SudokuCells
+	 * @param cellValues   2D Array of numbers for each SudokuCell
+	 * @param givenNumbers 2D Array marking which SudokuCells contain a given number, or null
 	 */
-	private SudokuCell[] getRow (int row) {
-		return board[row];
+	private void populateBoard (int[][] cellValues, boolean[][] givenNumbers) {
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				int number = cellValues[row][col];
+				if (number < 0 || number > size) {
+					throw new IllegalArgumentException("Number " + number + " out of range for a board of size " + size);
+				}
+				boolean given = ( givenNumbers == null ) ? ( number != 0 ) : givenNumbers[row][col];
+				// regions are numbered from 1, left to right then top to bottom
+				int region = ( row / boxSize ) * boxSize + col / boxSize + 1;
+				this.board[row][col] = new SudokuCell(region, row, col, number, given);
+				this.cells[row * size + col] = board[row][col];
+			}
+		}
 	}
 
 	/**
-	 * Get the given column of SudokuCells in the puzzle grid.
-	 * Used when verifying if current puzzle grid is a solution.
+	 * Get the SudokuCell at the given index of the {@link UnitTables}.
 	 *
-	 * @param col column number
-	 * @return Array of SudokuCells
+	 * @param cell cell index in row-major order
+	 * @return SudokuCell at the given index
 	 */
-	private SudokuCell[] getCol (int col) {
-		SudokuCell[] column = new SudokuCell[rows];
-		for (int row = 0; row < rows; row++) {
-			column[row] = board[row][col];
-		}
-		return column;
+	private SudokuCell getSudokuCell (int cell) {
+		return cells[cell];
 	}
 
 	/**
@@ -132,97 +189,252 @@ public class SudokuBoard implements Configuration {
 	}
 
 	/**
-	 * Generate the successors to this instance's 2D Array of SudokuCells by placing a new number [1, 9]
-	 * in the first empty SudokuCell found in the lowest numbered row and column.
+	 * @return the number of rows and columns in this board, which is also the largest number
+	 */
+	public int getSize () {
+		return size;
+	}
+
+	/**
+	 * @return the number of rows and columns in each region of this board
+	 */
+	public int getBoxSize () {
+		return boxSize;
+	}
+
+	/**
+	 * Get the numbers that can be placed in the SudokuCell at the given row and column without repeating
+	 * a number already in its row, column or region.
+	 *
+	 * @param row row number
+	 * @param col column number
+	 * @return mask where bit n - 1 is set if the number n is a candidate
+	 */
+	public long getCandidates (int row, int col) {
+		long used = 0;
+		for (int peer : tables.getPeers(row * size + col)) {
+			used |= numberBit(getSudokuCell(peer));
+		}
+		return ~used & allNumbers();
+	}
+
+	/**
+	 * @return mask with the bit of every number [1, size] set
+	 */
+	private long allNumbers () {
+		return ( 1L << size ) - 1;
+	}
+
+	/**
+	 * Get the bit representing the number of the given SudokuCell in a mask of numbers.
+	 *
+	 * @param sudokuCell a SudokuCell
+	 * @return bit n - 1 set for the number n, or 0 if the SudokuCell is empty
+	 */
+	private static long numberBit (SudokuCell sudokuCell) {
+		int num = sudokuCell.getNumber();
+		return ( num == 0 ) ? 0 : 1L << ( num - 1 );
+	}
+
+	/**
+	 * Set the heuristic used by {@link SudokuBoard#successorIterator()}. Successors inherit this board's heuristic.
+	 *
+	 * @param searchHeuristic heuristic to use
+	 */
+	public void setSearchHeuristic (SearchHeuristic searchHeuristic) {
+		this.searchHeuristic = searchHeuristic;
+	}
+
+	/**
+	 * @return the heuristic used to generate successors
+	 */
+	public SearchHeuristic getSearchHeuristic () {
+		return searchHeuristic;
+	}
+
+	/**
+	 * Generate the successors to this instance's 2D Array of SudokuCells by placing a new number in the SudokuCell
+	 * chosen by this board's heuristic, see {@link SudokuBoard#successorIterator()}.
 	 *
 	 * @return all successors, valid and invalid
 	 */
 	@Override
 	public Collection<Configuration> getSuccessors () {
 		Collection<Configuration> successors = new ArrayList<>();
-		for (int row = 0; row < rows; row++) {
-			for (int col = 0; col < cols; col++) {
-				if (getSudokuCell(row, col).getNumber() == 0) {
-					for (int num = 1; num <= 9; ++num) {
-						// create a copy of this board with this SudokuCell as every number in the range [1, 9]
-						SudokuBoard newBoard = new SudokuBoard(this);
-						newBoard.getSudokuCell(row, col).setNumber(num);
-						successors.add(newBoard);
+		successorIterator().forEachRemaining(successors::add);
+		return successors;
+	}
+
+	/**
+	 * Lazily generate the successors to this instance's 2D Array of SudokuCells. By default, a new number [1, size] is
+	 * placed in the first empty SudokuCell found in the lowest numbered row and column. Any other heuristic places
+	 * each legal number in the empty SudokuCell with the fewest legal numbers. A copy of this board is only made
+	 * once the iterator reaches its successor.
+	 *
+	 * @return iterator over all successors, valid and invalid
+	 */
+	@Override
+	public Iterator<Configuration> successorIterator () {
+		int[] cell = chooseCell();
+		if (cell == null) {
+			return Collections.emptyIterator();
+		}
+		int row = cell[0];
+		int col = cell[1];
+		int[] numbers = orderNumbers(row, col);
+		// successors only need to check the number placed in them if they know this board is valid
+		boolean valid = isValid();
+		return new Iterator<>() {
+			/** Index of the next number to place */
+			private int next = 0;
+
+			@Override
+			public boolean hasNext () {
+				return next < numbers.length;
+			}
+
+			@Override
+			public Configuration next () {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				// create a copy of this board with the chosen SudokuCell set to the next number
+				SudokuBoard newBoard = new SudokuBoard(SudokuBoard.this);
+				newBoard.getSudokuCell(row, col).setNumber(numbers[next++]);
+				newBoard.lastRow = row;
+				newBoard.lastCol = col;
+				newBoard.parentValid = valid;
+				return newBoard;
+			}
+		};
+	}
+
+	/**
+	 * Find the empty SudokuCell to branch on according to this board's heuristic: either the first empty SudokuCell
+	 * in the lowest numbered row and column, or the empty SudokuCell with the fewest legal numbers.
+	 *
+	 * @return row and column of the SudokuCell, or null if every SudokuCell has a number
+	 */
+	private int[] chooseCell () {
+		int[] best = null;
+		int bestCount = size + 1;
+		for (int row = 0; row < size && bestCount > 1; row++) {
+			for (int col = 0; col < size && bestCount > 1; col++) {
+				if (board[row][col].getNumber() == 0) {
+					if (searchHeuristic == SearchHeuristic.FIRST_EMPTY_CELL) {
+						return new int[]{ row, col };
+					}
+					int count = Long.bitCount(getCandidates(row, col));
+					if (count < bestCount) {
+						best = new int[]{ row, col };
+						bestCount = count;
 					}
-					return successors;
 				}
 			}
 		}
-		return null;
+		return best;
+	}
+
+	/**
+	 * Get the numbers to try in the given empty SudokuCell, in the order set by this board's heuristic.
+	 * With {@link SearchHeuristic#FIRST_EMPTY_CELL}, every number [1, size] is tried. Otherwise, only legal numbers
+	 * are tried in increasing order, or with {@link SearchHeuristic#LEAST_CONSTRAINING_VALUE}, starting with the
+	 * number that is a candidate in the fewest empty SudokuCells sharing a row, column or region with it.
+	 *
+	 * @param row row number
+	 * @param col column number
+	 * @return numbers to try, in order
+	 */
+	private int[] orderNumbers (int row, int col) {
+		if (searchHeuristic == SearchHeuristic.FIRST_EMPTY_CELL) {
+			int[] numbers = new int[size];
+			for (int i = 0; i < size; i++) {
+				numbers[i] = i + 1;
+			}
+			return numbers;
+		}
+		long candidates = getCandidates(row, col);
+		int[] numbers = new int[Long.bitCount(candidates)];
+		int[] ruledOut = new int[numbers.length];
+		for (int i = 0; candidates != 0; i++, candidates &= candidates - 1) {
+			numbers[i] = Long.numberOfTrailingZeros(candidates) + 1;
+			if (searchHeuristic == SearchHeuristic.LEAST_CONSTRAINING_VALUE) {
+				ruledOut[i] = countPeersWithCandidate(row, col, numbers[i]);
+				// insertion sort, keeping numbers that rule out the fewest candidates first
+				for (int j = i; j > 0 && ruledOut[j] < ruledOut[j - 1]; j--) {
+					int swap = numbers[j];
+					numbers[j] = numbers[j - 1];
+					numbers[j - 1] = swap;
+					swap = ruledOut[j];
+					ruledOut[j] = ruledOut[j - 1];
+					ruledOut[j - 1] = swap;
+				}
+			}
+		}
+		return numbers;
+	}
+
+	/**
+	 * Count the empty SudokuCells in the same row, column or region as the given SudokuCell that have the given
+	 * number as a candidate, which is the number of options placing that number would rule out.
+	 *
+	 * @param row row number
+	 * @param col column number
+	 * @param num number to check
+	 * @return number of empty peer SudokuCells with num as a candidate
+	 */
+	private int countPeersWithCandidate (int row, int col, int num) {
+		long bit = 1L << ( num - 1 );
+		int count = 0;
+		for (int peer : tables.getPeers(row * size + col)) {
+			if (getSudokuCell(peer).getNumber() == 0 && ( getCandidates(peer / size, peer % size) & bit ) != 0) {
+				++count;
+			}
+		}
+		return count;
 	}
 
 	/**
-	 * Check if this SudokuBoard has any repeating numbers in all nine regions, rows and columns of the board.
+	 * Check if this SudokuBoard has any repeating numbers in all regions, rows and columns of the board.
 	 * If a SudokuCell is set to 0, it is considered empty and skipped from the check, therefore, the number 0
 	 * is allowed to be repeated across SudokuCells.
+	 * <p>
+	 * The first time this is called on an unmodified successor, only the row, column and region of the last placed
+	 * number are checked, since placing one number cannot make any other unit invalid. That shortcut is then
+	 * dropped, so a successor edited afterwards, for example a solution shown to the user, is checked in full.
+	 * </p>
 	 *
 	 * @return true if this SudokuBoard is a solution
 	 */
 	@Override
 	public boolean isValid () {
-		// used to create arraylists below to check for repeating numbers
-		final List<Integer> listOfNumbers = List.of(new Integer[]{ 1, 2, 3, 4, 5, 6, 7, 8, 9 });
-
-		for (int region = 0; region < 9; region++) {
-			// there will only be 9 regions in a 9x9 Sudoku puzzle
-			ArrayList<SudokuCell> regionOfSudokuCells = getRegion(region);
-			ArrayList<Integer> numbers = new ArrayList<>(listOfNumbers);
-
-			for (SudokuCell sudokuCell : regionOfSudokuCells) {
-				Integer num = sudokuCell.getNumber();
-				if (num.equals(0)) {
-					// skip checking the cell if it is empty
-					continue;
-				}
-				if (!numbers.remove(num)) {
-					// remove returns false only if the given object was not in the ArrayList
-					// therefore a number was repeated in the region and this SudokuBoard is not a solution
-					return false;
-				}
-			}
+		if (lastRow != -1) {
+			int row = lastRow;
+			lastRow = -1;
+			return parentValid && isPlacementValid(row, lastCol);
 		}
 
-		for (int row = 0; row < rows; row++) {
-			SudokuCell[] rowOfSudokuCells = getRow(row);
-			ArrayList<Integer> numbers = new ArrayList<>(listOfNumbers);
+		return checkUnits(true);
+	}
 
-			for (SudokuCell sudokuCell : rowOfSudokuCells) {
-				Integer num = sudokuCell.getNumber();
-				if (num.equals(0)) {
-					// skip checking the cell if it is empty
-					continue;
-				}
-				if (!numbers.remove(num)) {
-					// remove returns false only if the given object was not in the ArrayList
-					// therefore a number was repeated in the row and this SudokuBoard is not a solution
-					return false;
-				}
-			}
+	/**
+	 * Check that the number in the SudokuCell at the given row and column is not repeated in its row, column
+	 * or region, by comparing it against the numbers of its peers directly.
+	 *
+	 * @param row row number
+	 * @param col column number
+	 * @return true if the number is not repeated, or the SudokuCell is empty
+	 */
+	private boolean isPlacementValid (int row, int col) {
+		int num = board[row][col].getNumber();
+		if (num == 0) {
+			return true;
 		}
-
-		for (int col = 0; col < cols; col++) {
-			SudokuCell[] colOfSudokuCells = getCol(col);
-			ArrayList<Integer> numbers = new ArrayList<>(listOfNumbers);
-
-			for (SudokuCell sudokuCell : colOfSudokuCells) {
-				Integer num = sudokuCell.getNumber();
-				if (num.equals(0)) {
-					// skip checking the cell if it is empty
-					continue;
-				}
-				if (!numbers.remove(num)) {
-					// remove returns false only if the given object was not in the ArrayList
-					// therefore a number was repeated in the column and this SudokuBoard is not a solution
-					return false;
-				}
+		for (int peer : tables.getPeers(row * size + col)) {
+			if (getSudokuCell(peer).getNumber() == num) {
+				return false;
 			}
 		}
-
 		return true;
 	}
 
@@ -230,102 +442,71 @@ public class SudokuBoard implements Configuration {
 	 * Check if this SudokuBoard is a solution to the Sudoku puzzle by checking the following conditions:
 	 *
 	 * <ol>
-	 *     <li>Each region has no repeating numbers from [1, 9].</li>
-	 *     <li>Each row has no repeating numbers from [1, 9].</li>
-	 *     <li>Each column has no repeating numbers from [1, 9].</li>
+	 *     <li>Each region has no repeating numbers from [1, size].</li>
+	 *     <li>Each row has no repeating numbers from [1, size].</li>
+	 *     <li>Each column has no repeating numbers from [1, size].</li>
 	 * </ol>
 	 *
 	 * @return true if this SudokuBoard is a solution
 	 */
 	@Override
 	public boolean isGoal () {
-		// used to create arraylists below to check for repeating numbers
-		final List<Integer> listOfNumbers = List.of(new Integer[]{ 1, 2, 3, 4, 5, 6, 7, 8, 9 });
-
-		for (int region = 0; region < 9; region++) {
-			// there will only be 9 regions in a 9x9 Sudoku puzzle
-			ArrayList<SudokuCell> regionOfSudokuCells = getRegion(region);
-			ArrayList<Integer> numbers = new ArrayList<>(listOfNumbers);
-
-			for (SudokuCell sudokuCell : regionOfSudokuCells) {
-				Integer num = sudokuCell.getNumber();
-				if (!numbers.remove(num)) {
-					// remove returns false only if the given object was not in the ArrayList
-					// therefore a number was repeated in the region and this SudokuBoard is not a solution
-					return false;
-				}
-			}
-		}
-
-		for (int row = 0; row < rows; row++) {
-			SudokuCell[] rowOfSudokuCells = getRow(row);
-			ArrayList<Integer> numbers = new ArrayList<>(listOfNumbers);
-
-			for (SudokuCell sudokuCell : rowOfSudokuCells) {
-				Integer num = sudokuCell.getNumber();
-				if (!numbers.remove(num)) {
-					// remove returns false only if the given object was not in the ArrayList
-					// therefore a number was repeated in the row and this SudokuBoard is not a solution
-					return false;
-				}
-			}
-		}
-
-		for (int col = 0; col < cols; col++) {
-			SudokuCell[] colOfSudokuCells = getCol(col);
-			ArrayList<Integer> numbers = new ArrayList<>(listOfNumbers);
+		return checkUnits(false);
+	}
 
-			for (SudokuCell sudokuCell : colOfSudokuCells) {
-				Integer num = sudokuCell.getNumber();
-				if (!numbers.remove(num)) {
-					// remove returns false only if the given object was not in the ArrayList
-					// therefore a number was repeated in the column and this SudokuBoard is not a solution
+	/**
+	 * Check every row, column and region for a repeated number, using a mask of the numbers seen in each.
+	 *
+	 * @param allowEmpty are empty SudokuCells skipped? If not, an empty SudokuCell fails the check
+	 * @return true if no unit repeats a number, and no SudokuCell is empty unless allowed
+	 */
+	private boolean checkUnits (boolean allowEmpty) {
+		for (int[] unit : tables.getUnits()) {
+			long seen = 0;
+			for (int cell : unit) {
+				long bit = numberBit(getSudokuCell(cell));
+				if (bit == 0) {
+					if (!allowEmpty) {
+						return false;
+					}
+				} else if (( seen & bit ) != 0) {
 					return false;
 				}
+				seen |= bit;
 			}
 		}
-
 		return true;
 	}
 
 	/**
 	 * Create a String representation of the current state of the SudokuBoard by displaying the SudokuCell numbers
-	 * distinctly separated by regions.
+	 * distinctly separated by regions. Numbers are padded to the width of the largest number.
 	 *
 	 * @return visual String representation of 2D Array of SudokuCells
 	 */
 	@Override
 	public String toString () {
+		int width = String.valueOf(size).length();
 		StringBuilder str = new StringBuilder();
-		for (int row = 0; row < rows; row++) {
-			int number = board[row][0].getNumber();
-			if (number == 0) {
-				str.append(".");
-			} else {
-				str.append(number);
-			}
-			for (int col = 1; col < cols; col++) {
-				if (( col % 3 ) == 0) {
+		for (int row = 0; row < size; row++) {
+			appendNumber(str, board[row][0].getNumber(), width);
+			for (int col = 1; col < size; col++) {
+				if (( col % boxSize ) == 0) {
 					str.append(" | ");
 				} else {
 					str.append(" ");
 				}
-				number = board[row][col].getNumber();
-				if (number == 0) {
-					str.append(".");
-				} else {
-					str.append(number);
-				}
+				appendNumber(str, board[row][col].getNumber(), width);
 			}
 			str.append("\n");
-			if (( ( row + 1 ) != rows ) && ( ( row + 1 ) % 3 ) == 0) {
-				for (int col = 0; col < cols; col++) {
+			if (( ( row + 1 ) != size ) && ( ( row + 1 ) % boxSize ) == 0) {
+				for (int col = 0; col < size; col++) {
 					if (col == 0) {
-						str.append("-");
-					} else if (( col % 3 ) == 0) {
-						str.append("----");
+						str.append("-".repeat(width));
+					} else if (( col % boxSize ) == 0) {
+						str.append("-".repeat(width + 3));
 					} else {
-						str.append("--");
+						str.append("-".repeat(width + 1));
 					}
 				}
 				str.append("\n");
@@ -333,4 +514,16 @@ public class SudokuBoard implements Configuration {
 		}
 		return str.toString();
 	}
+
+	/**
+	 * Append a SudokuCell number, or "." if it is empty, right aligned to the given width.
+	 *
+	 * @param str    StringBuilder to append to
+	 * @param number SudokuCell number
+	 * @param width  number of characters to use
+	 */
+	private static void appendNumber (StringBuilder str, int number, int width) {
+		String text = ( number == 0 ) ? "." : String.valueOf(number);
+		str.append(" ".repeat(width - text.length())).append(text);
+	}
 }
@@ -1,5 +1,6 @@
 package sudoku.puzzle;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -21,7 +22,7 @@ public class SudokuCell {
 	/** The number of this SudokuCell in the Sudoku puzzle */
 	private int number;
 
-	/** The Set of possible numbers this SudokuCell could be */
+	/** The Set of possible numbers this SudokuCell could be, an immutable empty Set until the first is added */
 	private Set<Integer> annotations;
 
 	/**
@@ -33,16 +34,32 @@ public class SudokuCell {
 	 * @param number the number of this SudokuCell, if given
 	 */
 	public SudokuCell (int region, int row, int col, int number) {
+		this(region, row, col, number, ( number != 0 ));
+	}
+
+	/**
+	 * Create a new SudokuCell instance with the given region, row and column number, and SudokuCell number,
+	 * explicitly stating whether the number is a given number. Used when the number of a non-given SudokuCell
+	 * is already known, such as when converting a solved board back into SudokuCells.
+	 *
+	 * @param region      the region within the puzzle
+	 * @param row         the row number of this SudokuCell
+	 * @param col         the column number of this SudokuCell
+	 * @param number      the number of this SudokuCell
+	 * @param givenNumber is the number a given number of the puzzle?
+	 */
+	public SudokuCell (int region, int row, int col, int number, boolean givenNumber) {
 		this.region = region;
 		this.row = row;
 		this.col = col;
 		this.number = number;
-		this.givenNumber = ( number != 0 );
-		this.annotations = new HashSet<>();
+		this.givenNumber = givenNumber;
+		this.annotations = Collections.emptySet();
 	}
 
 	/**
-	 * Make a copy of the given SudokuCell's current state, for use in a cloned GUICell in the GUIBoard's undoStack.
+	 * Make a copy of the given SudokuCell's current state. The copy has its own annotations, so annotating one
+	 * cell never changes the other.
 	 *
 	 * @param other SudokuCell to copy
 	 */
@@ -52,7 +69,7 @@ public class SudokuCell {
 		this.col = other.col;
 		this.number = other.number;
 		this.givenNumber = other.givenNumber;
-		this.annotations = other.annotations;
+		this.annotations = other.annotations.isEmpty() ? Collections.emptySet() : new HashSet<>(other.annotations);
 	}
 
 	/**
@@ -62,6 +79,9 @@ public class SudokuCell {
 	 */
 	public void addAnnotation (int num) {
 		if (!givenNumber) {
+			if (annotations.isEmpty()) {
+				this.annotations = new HashSet<>();
+			}
 			this.annotations.add(num);
 		}
 	}
@@ -86,7 +106,7 @@ public class SudokuCell {
 	public void setNumber (int num) {
 		if (!givenNumber) {
 			this.number = num;
-			this.annotations = new HashSet<>();
+			this.annotations = Collections.emptySet();
 		}
 	}
 
@@ -136,7 +156,7 @@ public class SudokuCell {
 	}
 
 	/**
-	 * @return Set of possible numbers this SudokuCell could be
+	 * @return Set of possible numbers this SudokuCell could be, which must only be changed through this SudokuCell
 	 */
 	public Set<Integer> getAnnotations () {
 		return annotations;
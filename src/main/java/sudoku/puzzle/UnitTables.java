@@ -0,0 +1,130 @@
+package sudoku.puzzle;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The units and peers of every cell of an NxN Sudoku board, built once per board size and shared by every board,
+ * grid and GUI of that size, so finding the cells of a row, column or region never scans or allocates. Cells are
+ * indexed in row-major order. The tables are shared, and the arrays returned must not be changed.
+ */
+public final class UnitTables {
+	/** The tables of every board size seen so far */
+	private static final Map<Integer, UnitTables> TABLES = new ConcurrentHashMap<>();
+
+	/** The number of rows, columns and numbers in the board */
+	private final int size;
+	/** The cells of each unit: rows, then columns, then regions, size units of each */
+	private final int[][] units;
+	/** The region index of each cell, in the range [0, size - 1] */
+	private final int[] regions;
+	/** The cells sharing a row, column or region with each cell */
+	private final int[][] peers;
+
+	/**
+	 * Build the units and peers of a board of the given size.
+	 *
+	 * @param size number of rows and columns in the board
+	 * @throws IllegalArgumentException if size is not a supported board size
+	 */
+	private UnitTables (int size) {
+		int boxSize = SudokuBoard.boxSizeOf(size);
+		int cells = size * size;
+		this.size = size;
+		this.units = new int[3 * size][size];
+		this.regions = new int[cells];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				units[i][j] = i * size + j;
+				units[size + i][j] = j * size + i;
+				units[2 * size + i][j] = ( ( i / boxSize ) * boxSize + j / boxSize ) * size
+						+ ( i % boxSize ) * boxSize + j % boxSize;
+				regions[units[2 * size + i][j]] = i;
+			}
+		}
+		// every cell has size - 1 peers in its row and column, and the rest of its region outside those
+		int peerCount = 2 * ( size - 1 ) + ( boxSize - 1 ) * ( boxSize - 1 );
+		this.peers = new int[cells][];
+		for (int cell = 0; cell < cells; cell++) {
+			int row = cell / size;
+			int col = cell % size;
+			int[] cellPeers = new int[peerCount];
+			int count = 0;
+			for (int other = 0; other < cells; other++) {
+				int otherRow = other / size;
+				int otherCol = other % size;
+				boolean sameRegion = ( row / boxSize == otherRow / boxSize ) && ( col / boxSize == otherCol / boxSize );
+				if (other != cell && ( row == otherRow || col == otherCol || sameRegion )) {
+					cellPeers[count++] = other;
+				}
+			}
+			peers[cell] = cellPeers;
+		}
+	}
+
+	/**
+	 * Get the tables of a board of the given size, building them on first use.
+	 *
+	 * @param size number of rows and columns in the board
+	 * @return the shared tables for that size
+	 * @throws IllegalArgumentException if size is not a supported board size
+	 */
+	public static UnitTables of (int size) {
+		UnitTables tables = TABLES.get(size);
+		return ( tables != null ) ? tables : TABLES.computeIfAbsent(size, UnitTables::new);
+	}
+
+	/**
+	 * @return the number of rows, columns and numbers in the board
+	 */
+	public int getSize () {
+		return size;
+	}
+
+	/**
+	 * @return the cells of each unit: rows, then columns, then regions, size units of each
+	 */
+	public int[][] getUnits () {
+		return units;
+	}
+
+	/**
+	 * @param row row number
+	 * @return the cells of the row, from left to right
+	 */
+	public int[] getRow (int row) {
+		return units[row];
+	}
+
+	/**
+	 * @param col column number
+	 * @return the cells of the column, from top to bottom
+	 */
+	public int[] getCol (int col) {
+		return units[size + col];
+	}
+
+	/**
+	 * @param region region number, counted from 1 as in {@link SudokuCell#getRegion()}
+	 * @return the cells of the region, row by row
+	 */
+	public int[] getRegion (int region) {
+		return units[2 * size + region - 1];
+	}
+
+	/**
+	 * @param cell cell index in row-major order
+	 * @return the region index of the cell, in the range [0, size - 1]
+	 */
+	public int getRegionOf (int cell) {
+		return regions[cell];
+	}
+
+	/**
+	 * @param cell cell index in row-major order
+	 * @return the cells sharing a row, column or region with the cell, in row-major order
+	 */
+	public int[] getPeers (int cell) {
+		return peers[cell];
+	}
+}
@@ -0,0 +1,92 @@
+package sudoku.server;
+
+import sudoku.puzzle.PuzzleFormat;
+import sudoku.puzzle.SudokuBoard;
+
+import java.util.Optional;
+
+/** The answer to one solve request: the solution, if any, and statistics about how it was found. */
+public class SolveResult {
+	/** The solution, or null if the puzzle has none */
+	private final SudokuBoard solution;
+	/** The format the puzzle was written in, and the solution is written in */
+	private final PuzzleFormat format;
+	/** The number of positions the backtracking search visited */
+	private final long nodesVisited;
+	/** The length of the longest search path */
+	private final int maxDepth;
+	/** Time spent answering the request, in nanoseconds */
+	private final long elapsedNanos;
+	/** Was the solution taken from the cache? */
+	private final boolean cached;
+
+	/**
+	 * Create a new SolveResult.
+	 *
+	 * @param solution     the solution, or null if the puzzle has none
+	 * @param format       the format the solution is written in
+	 * @param nodesVisited the number of positions the backtracking search visited
+	 * @param maxDepth     the length of the longest search path
+	 * @param elapsedNanos time spent answering the request, in nanoseconds
+	 * @param cached       was the solution taken from the cache?
+	 */
+	public SolveResult (SudokuBoard solution, PuzzleFormat format, long nodesVisited, int maxDepth,
+	                    long elapsedNanos, boolean cached) {
+		this.solution = solution;
+		this.format = format;
+		this.nodesVisited = nodesVisited;
+		this.maxDepth = maxDepth;
+		this.elapsedNanos = elapsedNanos;
+		this.cached = cached;
+	}
+
+	/**
+	 * @return the solution, or empty if the puzzle has none
+	 */
+	public Optional<SudokuBoard> getSolution () {
+		return Optional.ofNullable(solution);
+	}
+
+	/**
+	 * @return the number of positions the backtracking search visited
+	 */
+	public long getNodesVisited () {
+		return nodesVisited;
+	}
+
+	/**
+	 * @return the length of the longest search path
+	 */
+	public int getMaxDepth () {
+		return maxDepth;
+	}
+
+	/**
+	 * @return time spent answering the request, in nanoseconds
+	 */
+	public long getElapsedNanos () {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @return true if the solution was taken from the cache
+	 */
+	public boolean isCached () {
+		return cached;
+	}
+
+	/**
+	 * Write this result as a JSON object, with the solution in the same format as the puzzle.
+	 *
+	 * @return JSON object describing this result
+	 */
+	public String toJson () {
+		String solutionJson = ( solution == null ) ? "null" : SolverServer.jsonString(format.format(solution));
+		return "{\"solved\":" + ( solution != null )
+				+ ",\"solution\":" + solutionJson
+				+ ",\"nodes\":" + nodesVisited
+				+ ",\"maxDepth\":" + maxDepth
+				+ ",\"micros\":" + elapsedNanos / 1000
+				+ ",\"cached\":" + cached + "}";
+	}
+}
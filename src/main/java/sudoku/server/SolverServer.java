@@ -0,0 +1,470 @@
+package sudoku.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import sudoku.backtracking.IterativeBacktracker;
+import sudoku.logic.ConstraintPropagator;
+import sudoku.logic.PropagationResult;
+import sudoku.puzzle.CompactSudokuBoard;
+import sudoku.puzzle.PuzzleFormat;
+import sudoku.puzzle.PuzzleReader;
+import sudoku.puzzle.SearchHeuristic;
+import sudoku.puzzle.SolutionCache;
+import sudoku.puzzle.SudokuBoard;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A headless Sudoku solving service on a local HTTP port, so other programs can solve puzzles without starting a
+ * JVM each time. The server only listens on the loopback address.
+ * <p>
+ * A puzzle is sent to {@code /solve} either as the body of a POST, in either {@link PuzzleFormat} or as a JSON object
+ * such as {@code {"puzzle":"53..7...."}}, or as the {@code puzzle} query parameter of a GET. The answer is a JSON
+ * object holding the solution, in the same format as the puzzle, and statistics about the search, see
+ * {@link SolveResult#toJson()}. Errors are answered with a JSON object holding an {@code error} message.
+ * {@code /health} answers with the number of searches running and waiting.
+ * </p>
+ * <p>
+ * Each request is handled on its own virtual thread when the runtime has them, and on a pooled platform thread
+ * otherwise. Searches run on a bounded pool of solver threads with a short queue, so a burst of requests waits
+ * instead of starting more searches than there are cores, and a request that finds the queue full is turned away
+ * with 503. Every search is stopped at the deadline, which is answered with 504.
+ * </p>
+ * <pre>
+ * SolverServer [--port N] [--threads N] [--deadline MILLIS] [--cache N]
+ * </pre>
+ */
+public class SolverServer {
+	/** Default port the server listens on */
+	public static final int DEFAULT_PORT = 8080;
+	/** Default time a search may take, from when its request arrives */
+	public static final Duration DEFAULT_DEADLINE = Duration.ofSeconds(10);
+	/** The largest request body read, in bytes, which is plenty for a 49x49 CSV puzzle */
+	private static final int MAX_BODY_BYTES = 16 * 1024;
+	/** Searches waiting for a solver thread, per thread, before requests are turned away */
+	private static final int QUEUED_PER_THREAD = 16;
+	/** Nodes searched between checks of the deadline */
+	private static final long NODES_PER_SLICE = 10_000;
+
+	/** The HTTP server accepting requests */
+	private final HttpServer httpServer;
+	/** Runs each request, on a virtual thread when possible */
+	private final ExecutorService requestExecutor;
+	/** Runs the searches, with a bounded queue */
+	private final ThreadPoolExecutor solverPool;
+	/** Time a search may take, from when its request arrives */
+	private final Duration deadline;
+	/** Propagates a puzzle before it is searched */
+	private final ConstraintPropagator propagator;
+	/** Solutions of recent puzzles, or null if not caching */
+	private final SolutionCache cache;
+
+	/**
+	 * Create a new SolverServer bound to the given loopback port. No request is accepted until
+	 * {@link SolverServer#start()} is called.
+	 *
+	 * @param port          port to listen on, or 0 for any free port
+	 * @param threads       the number of searches run at once
+	 * @param deadline      time a search may take, from when its request arrives
+	 * @param cacheCapacity the most solutions cached, or 0 to not cache solutions
+	 * @throws IOException              if the port cannot be bound
+	 * @throws IllegalArgumentException if threads is less than 1
+	 */
+	public SolverServer (int port, int threads, Duration deadline, int cacheCapacity) throws IOException {
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one solver thread is needed, not " + threads);
+		}
+		this.deadline = deadline;
+		this.propagator = new ConstraintPropagator();
+		this.cache = ( cacheCapacity > 0 ) ? new SolutionCache(cacheCapacity) : null;
+		this.solverPool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(threads * QUEUED_PER_THREAD), new ThreadPoolExecutor.AbortPolicy());
+		this.requestExecutor = newRequestExecutor();
+		this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		httpServer.createContext("/solve", this::handleSolve);
+		httpServer.createContext("/health", this::handleHealth);
+		httpServer.setExecutor(requestExecutor);
+	}
+
+	/**
+	 * Create an executor running each task on a new virtual thread. Virtual threads are looked up reflectively, since
+	 * this project is built for a release without them, and a pool of platform threads is used where they are
+	 * missing or still a preview feature.
+	 *
+	 * @return executor for requests
+	 */
+	private static ExecutorService newRequestExecutor () {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	/** Start accepting requests. */
+	public void start () {
+		httpServer.start();
+	}
+
+	/**
+	 * Stop accepting requests, give those being handled a moment to finish, then stop every search.
+	 */
+	public void stop () {
+		httpServer.stop(1);
+		requestExecutor.shutdownNow();
+		solverPool.shutdownNow();
+	}
+
+	/**
+	 * @return the port the server listens on
+	 */
+	public int getPort () {
+		return httpServer.getAddress().getPort();
+	}
+
+	/**
+	 * Solve the puzzle of one request and send the result.
+	 *
+	 * @param exchange the request and its response
+	 * @throws IOException if the response cannot be sent
+	 */
+	private void handleSolve (HttpExchange exchange) throws IOException {
+		long startTime = System.nanoTime();
+		try {
+			String puzzleText;
+			if (exchange.getRequestMethod().equals("GET")) {
+				puzzleText = queryParameter(exchange, "puzzle");
+			} else if (exchange.getRequestMethod().equals("POST")) {
+				byte[] body = exchange.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+				if (body.length > MAX_BODY_BYTES) {
+					sendError(exchange, 413, "Request body is larger than " + MAX_BODY_BYTES + " bytes");
+					return;
+				}
+				puzzleText = new String(body, StandardCharsets.UTF_8).strip();
+				if (puzzleText.startsWith("{")) {
+					puzzleText = jsonStringField(puzzleText, "puzzle");
+				}
+			} else {
+				sendError(exchange, 405, "Use GET or POST to solve a puzzle");
+				return;
+			}
+
+			SudokuBoard puzzle;
+			PuzzleFormat format;
+			try (PuzzleReader reader = new PuzzleReader(new BufferedReader(new StringReader(puzzleText)))) {
+				puzzle = reader.next();
+				format = reader.getLastFormat();
+			}
+			if (puzzle == null) {
+				sendError(exchange, 400, "No puzzle given");
+				return;
+			}
+
+			long stopTime = startTime + deadline.toNanos();
+			Future<SolveResult> result = solverPool.submit(() -> solve(puzzle, format, startTime, stopTime));
+			send(exchange, 200, result.get().toJson());
+		} catch (IllegalArgumentException | UncheckedIOException e) {
+			sendError(exchange, 400, e.getMessage());
+		} catch (RejectedExecutionException e) {
+			sendError(exchange, 503, "Too many puzzles waiting to be solved");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof DeadlineExceededException) {
+				sendError(exchange, 504, "No solution found within " + deadline.toMillis() + " ms");
+			} else {
+				sendError(exchange, 500, String.valueOf(e.getCause()));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			sendError(exchange, 503, "Server is shutting down");
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Report the number of searches running and waiting.
+	 *
+	 * @param exchange the request and its response
+	 * @throws IOException if the response cannot be sent
+	 */
+	private void handleHealth (HttpExchange exchange) throws IOException {
+		try {
+			send(exchange, 200, "{\"status\":\"ok\",\"solving\":" + solverPool.getActiveCount()
+					+ ",\"queued\":" + solverPool.getQueue().size() + "}");
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Solve one puzzle, through the cache if there is one. This runs on a solver thread.
+	 *
+	 * @param puzzle    the puzzle to solve
+	 * @param format    the format the solution is written in
+	 * @param startTime {@link System#nanoTime()} when the request arrived
+	 * @param stopTime  {@link System#nanoTime()} after which the search is stopped
+	 * @return the solution and search statistics
+	 * @throws DeadlineExceededException if the search is still running at the stop time
+	 */
+	private SolveResult solve (SudokuBoard puzzle, PuzzleFormat format, long startTime, long stopTime) {
+		Search search = new Search(stopTime);
+		Optional<SudokuBoard> solution = ( cache == null ) ? search.apply(puzzle) : cache.solve(puzzle, search);
+		return new SolveResult(solution.orElse(null), format, search.nodesVisited, search.maxDepth,
+				System.nanoTime() - startTime, cache != null && !search.searched);
+	}
+
+	/**
+	 * @param exchange a request
+	 * @param name     name of a query parameter
+	 * @return the decoded value of the parameter
+	 * @throws IllegalArgumentException if the request has no such parameter
+	 */
+	private static String queryParameter (HttpExchange exchange, String name) {
+		String query = exchange.getRequestURI().getRawQuery();
+		if (query != null) {
+			for (String parameter : query.split("&")) {
+				int equals = parameter.indexOf('=');
+				if (equals > 0 && parameter.substring(0, equals).equals(name)) {
+					return URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+				}
+			}
+		}
+		throw new IllegalArgumentException("Missing query parameter " + name);
+	}
+
+	/**
+	 * Read the value of a string field of a JSON object. Only what is needed to find a puzzle is supported: the field
+	 * must be a string, and other fields are not parsed.
+	 *
+	 * @param json  a JSON object
+	 * @param field name of the field
+	 * @return the unescaped value of the field
+	 * @throws IllegalArgumentException if the object has no such string field
+	 */
+	static String jsonStringField (String json, String field) {
+		int key = json.indexOf(jsonString(field));
+		int pos = ( key < 0 ) ? -1 : skipWhitespace(json, key + field.length() + 2);
+		if (pos < 0 || pos >= json.length() || json.charAt(pos) != ':') {
+			throw new IllegalArgumentException("Missing JSON field " + field);
+		}
+		pos = skipWhitespace(json, pos + 1);
+		if (pos >= json.length() || json.charAt(pos) != '"') {
+			throw new IllegalArgumentException("JSON field " + field + " is not a string");
+		}
+		StringBuilder value = new StringBuilder();
+		for (int i = pos + 1; i < json.length(); i++) {
+			char c = json.charAt(i);
+			if (c == '"') {
+				return value.toString();
+			}
+			if (c == '\\' && i + 1 < json.length()) {
+				char escaped = json.charAt(++i);
+				switch (escaped) {
+					case 'n' -> value.append('\n');
+					case 'r' -> value.append('\r');
+					case 't' -> value.append('\t');
+					case 'u' -> {
+						if (i + 4 >= json.length()) {
+							throw new IllegalArgumentException("Unterminated JSON escape");
+						}
+						value.append((char) Integer.parseInt(json.substring(i + 1, i + 5), 16));
+						i += 4;
+					}
+					default -> value.append(escaped);
+				}
+			} else {
+				value.append(c);
+			}
+		}
+		throw new IllegalArgumentException("Unterminated JSON string");
+	}
+
+	/**
+	 * @param str  a string
+	 * @param from index to start at
+	 * @return index of the first character at or after from that is not whitespace
+	 */
+	private static int skipWhitespace (String str, int from) {
+		while (from < str.length() && Character.isWhitespace(str.charAt(from))) {
+			++from;
+		}
+		return from;
+	}
+
+	/**
+	 * @param str a string
+	 * @return the string as a quoted and escaped JSON string
+	 */
+	static String jsonString (String str) {
+		StringBuilder json = new StringBuilder(str.length() + 2).append('"');
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			switch (c) {
+				case '"' -> json.append("\\\"");
+				case '\\' -> json.append("\\\\");
+				case '\n' -> json.append("\\n");
+				case '\r' -> json.append("\\r");
+				case '\t' -> json.append("\\t");
+				default -> {
+					if (c < ' ') {
+						json.append(String.format("\\u%04x", (int) c));
+					} else {
+						json.append(c);
+					}
+				}
+			}
+		}
+		return json.append('"').toString();
+	}
+
+	/**
+	 * @param exchange the request to answer
+	 * @param status   HTTP status code
+	 * @param message  error message
+	 * @throws IOException if the response cannot be sent
+	 */
+	private static void sendError (HttpExchange exchange, int status, String message) throws IOException {
+		send(exchange, status, "{\"error\":" + jsonString(String.valueOf(message)) + "}");
+	}
+
+	/**
+	 * @param exchange the request to answer
+	 * @param status   HTTP status code
+	 * @param json     JSON response body
+	 * @throws IOException if the response cannot be sent
+	 */
+	private static void send (HttpExchange exchange, int status, String json) throws IOException {
+		byte[] body = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	/**
+	 * Start a server and keep it running until the JVM is stopped.
+	 *
+	 * @param args command line arguments, see the class description
+	 */
+	public static void main (String[] args) {
+		int port = DEFAULT_PORT;
+		int threads = Runtime.getRuntime().availableProcessors();
+		Duration deadline = DEFAULT_DEADLINE;
+		int cacheCapacity = 0;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+					case "--port" -> port = Integer.parseInt(args[++i]);
+					case "--threads" -> threads = Integer.parseInt(args[++i]);
+					case "--deadline" -> deadline = Duration.ofMillis(Long.parseLong(args[++i]));
+					case "--cache" -> cacheCapacity = Integer.parseInt(args[++i]);
+					default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+				}
+			}
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			System.err.println(( e instanceof ArrayIndexOutOfBoundsException ) ? "Missing option value" : e.getMessage());
+			System.err.println("Usage: SolverServer [--port N] [--threads N] [--deadline MILLIS] [--cache N]");
+			System.exit(2);
+			return;
+		}
+
+		try {
+			SolverServer server = new SolverServer(port, threads, deadline, cacheCapacity);
+			Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+			server.start();
+			System.err.println("Solving puzzles at http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":"
+					+ server.getPort() + "/solve using " + threads + " threads");
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Server failed to start: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	/** Thrown when a search is still running at its deadline. */
+	private static class DeadlineExceededException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		/** Create a new DeadlineExceededException. */
+		private DeadlineExceededException () {
+			super("Deadline exceeded");
+		}
+	}
+
+	/**
+	 * A search for the solution of one puzzle, stopped at a deadline, which keeps its statistics so they can be
+	 * reported whether or not the cache called it.
+	 */
+	private class Search implements Function<SudokuBoard, Optional<SudokuBoard>> {
+		/** {@link System#nanoTime()} after which the search is stopped */
+		private final long stopTime;
+		/** Has a search been run? */
+		private boolean searched;
+		/** The number of positions the backtracking search visited */
+		private long nodesVisited;
+		/** The length of the longest search path */
+		private int maxDepth;
+
+		/**
+		 * Create a new Search.
+		 *
+		 * @param stopTime {@link System#nanoTime()} after which the search is stopped
+		 */
+		private Search (long stopTime) {
+			this.stopTime = stopTime;
+		}
+
+		/**
+		 * Propagate the puzzle, then search what is left a slice at a time until it is solved, exhausted, or the
+		 * deadline passes.
+		 *
+		 * @param puzzle the puzzle to solve
+		 * @return the solution, or empty if the puzzle has none
+		 * @throws DeadlineExceededException if the search is still running at the stop time
+		 */
+		@Override
+		public Optional<SudokuBoard> apply (SudokuBoard puzzle) {
+			searched = true;
+			PropagationResult propagated = propagator.propagate(puzzle);
+			if (propagated.isContradiction()) {
+				return Optional.empty();
+			}
+			SudokuBoard board = propagated.getSudokuBoard();
+			if (propagated.isSolved()) {
+				return Optional.of(board);
+			}
+			board.setSearchHeuristic(SearchHeuristic.MINIMUM_REMAINING_VALUES);
+			IterativeBacktracker backtracker = new IterativeBacktracker(new CompactSudokuBoard(board));
+			try {
+				while (backtracker.step(NODES_PER_SLICE) == IterativeBacktracker.Status.RUNNING) {
+					if (System.nanoTime() > stopTime || Thread.currentThread().isInterrupted()) {
+						throw new DeadlineExceededException();
+					}
+				}
+			} finally {
+				nodesVisited = backtracker.getNodesVisited();
+				maxDepth = backtracker.getMaxDepth();
+			}
+			return backtracker.getSolution().map(config -> ( (CompactSudokuBoard) config ).toSudokuBoard());
+		}
+	}
+}